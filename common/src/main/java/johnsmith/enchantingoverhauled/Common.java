@@ -4,6 +4,7 @@ import johnsmith.enchantingoverhauled.advancement.CriteriaRegistry;
 import johnsmith.enchantingoverhauled.api.enchantment.theme.registry.EnchantmentThemeRegistry;
 import johnsmith.enchantingoverhauled.config.Config;
 import johnsmith.enchantingoverhauled.damagesource.DamageTypeRegistry;
+import johnsmith.enchantingoverhauled.lib.cache.ReloadableCache;
 
 /**
  * The common entry point for Enchanting Overhauled.
@@ -29,4 +30,14 @@ public class Common {
 
         CriteriaRegistry.initialize();
     }
+
+    /**
+     * Invalidates all data derived from registries and tags.
+     * <p>
+     * This method must be called by the platform-specific entry points whenever tags are
+     * (re)bound on either logical side, e.g. on world load and after {@code /reload}.
+     */
+    public static void onTagsLoaded() {
+        ReloadableCache.invalidateAll();
+    }
 }
\ No newline at end of file
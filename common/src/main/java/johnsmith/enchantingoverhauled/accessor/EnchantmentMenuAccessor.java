@@ -1,5 +1,11 @@
 package johnsmith.enchantingoverhauled.accessor;
 
+import johnsmith.enchantingoverhauled.lib.EnchantmentOptions;
+import johnsmith.enchantingoverhauled.lib.cache.EnchantmentIndex;
+import johnsmith.enchantingoverhauled.network.EnchantmentMenuStatePayload;
+
+import net.minecraft.core.RegistryAccess;
+import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.item.enchantment.Enchantment;
 
@@ -40,6 +46,46 @@ public interface EnchantmentMenuAccessor {
      */
     public abstract int[] enchanting_overhauled$getEnchantmentSourceArray();
 
+    /**
+     * Gets the enchantment options to display: the client's locally computed preview while the server
+     * has not yet answered the latest slot change, otherwise the options synced from the server.
+     *
+     * @return The options to render. Must not be modified.
+     */
+    public abstract EnchantmentOptions enchanting_overhauled$getDisplayedOptions();
+
+    /**
+     * Gets the enchantment index of the given registry access, cached on the menu until the next reload
+     * so that per-frame and per-click id lookups are plain array reads.
+     *
+     * @param registryAccess The registry access of the menu's level.
+     * @return The enchantment index.
+     */
+    public abstract EnchantmentIndex enchanting_overhauled$getEnchantmentIndex(RegistryAccess registryAccess);
+
+    /**
+     * Applies a packed menu state received from the server.
+     * <p>
+     * The state holds three entries per option slot for each of, in order: costs, enchantment clues,
+     * level clues and sources.
+     *
+     * @param payload The received state.
+     */
+    public abstract void enchanting_overhauled$applyMenuState(EnchantmentMenuStatePayload payload);
+
+    /**
+     * Applies several enchantment options in order, as a single action.
+     * <p>
+     * The batch is applied to a working copy of the slots first; if any button is invalid or the player
+     * cannot afford all of them, nothing happens. On the client nothing is ever changed, so the return
+     * value only tells whether the server would accept the batch, like vanilla's {@code clickMenuButton}.
+     *
+     * @param player    The player who selected the options.
+     * @param buttonIds The option buttons to apply, in order.
+     * @return True if the batch was (or, on the client, would be) applied.
+     */
+    public abstract boolean enchanting_overhauled$clickMenuButtons(Player player, int[] buttonIds);
+
     /**
      * Calculates the resource cost (Experience Levels and Lapis Lazuli) required
      * to apply the given enchantment.
@@ -50,7 +96,7 @@ public interface EnchantmentMenuAccessor {
     public abstract int enchanting_overhauled$calculateEnchantmentCost(Enchantment enchantment);
 
     /**
-     * Gets the array of random texture indices used to render the background of
+     * Gets the array of seed-derived texture indices used to render the background of
      * "Target" (Upgrade) buttons.
      *
      * @return An integer array of size 3 containing texture IDs (0-9).
@@ -58,7 +104,7 @@ public interface EnchantmentMenuAccessor {
     public int[] enchanting_overhauled$getTargetTextureIndices();
 
     /**
-     * Gets the array of random texture indices used to render the background of
+     * Gets the array of seed-derived texture indices used to render the background of
      * "Source" (Transfer) buttons.
      *
      * @return An integer array of size 3 containing texture IDs (0-9).
@@ -66,7 +112,7 @@ public interface EnchantmentMenuAccessor {
     public int[] enchanting_overhauled$getSourceTextureIndices();
 
     /**
-     * Gets the array of random texture indices used to render the background of
+     * Gets the array of seed-derived texture indices used to render the background of
      * "Table" (New Enchantment) buttons.
      *
      * @return An integer array of size 3 containing texture IDs (0-9).
@@ -0,0 +1,20 @@
+package johnsmith.enchantingoverhauled.accessor;
+
+import johnsmith.enchantingoverhauled.lib.EnchantmentView;
+
+/**
+ * Accessor interface for {@link net.minecraft.world.item.enchantment.ItemEnchantments}.
+ * <p>
+ * This interface is implemented via Mixin on the {@code ItemEnchantments} class.
+ * It exposes an {@link EnchantmentView} of the component that is built on first use and then
+ * kept on the (immutable) component instance itself.
+ */
+public interface EnchantmentViewAccessor {
+
+    /**
+     * Gets the indexed view of this component's enchantments.
+     *
+     * @return The view, shared by all callers.
+     */
+    EnchantmentView enchanting_overhauled$getView();
+}
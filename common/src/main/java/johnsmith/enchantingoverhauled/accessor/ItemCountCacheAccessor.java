@@ -0,0 +1,24 @@
+package johnsmith.enchantingoverhauled.accessor;
+
+import net.minecraft.core.HolderSet;
+import net.minecraft.world.item.Item;
+
+/**
+ * Accessor interface for {@link net.minecraft.world.level.block.entity.BlockEntity}.
+ * <p>
+ * This interface is implemented via Mixin on the {@code BlockEntity} class.
+ * It exposes a per-block-entity cache of item counts used by the
+ * {@code count_items_in_inventory} power bonus, so that a container only has to be
+ * scanned again after its contents change.
+ */
+public interface ItemCountCacheAccessor {
+
+    /**
+     * Counts the items in this block entity's container that are part of the given set.
+     * The result is cached until the block entity is marked as changed.
+     *
+     * @param items The item set of a power bonus (compared by identity).
+     * @return The total stack count of matching items, or 0 if the block entity is not a container.
+     */
+    int enchanting_overhauled$countItems(HolderSet<Item> items);
+}
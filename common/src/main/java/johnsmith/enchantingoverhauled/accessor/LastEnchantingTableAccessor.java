@@ -0,0 +1,28 @@
+package johnsmith.enchantingoverhauled.accessor;
+
+import net.minecraft.core.BlockPos;
+
+/**
+ * Accessor interface for {@link net.minecraft.world.entity.player.Player}.
+ * <p>
+ * This interface is implemented via Mixin on the {@code Player} class.
+ * It remembers the enchanting table the player last interacted with on the client,
+ * whose position the client-side {@code EnchantmentMenu} is otherwise not told about,
+ * so the menu can preview its options locally.
+ */
+public interface LastEnchantingTableAccessor {
+
+    /**
+     * Gets the position of the enchanting table the player last used.
+     *
+     * @return The table position, or {@code null} if no table has been used.
+     */
+    BlockPos enchanting_overhauled$getLastEnchantingTable();
+
+    /**
+     * Sets the position of the enchanting table the player last used.
+     *
+     * @param pos The table position.
+     */
+    void enchanting_overhauled$setLastEnchantingTable(BlockPos pos);
+}
@@ -0,0 +1,20 @@
+package johnsmith.enchantingoverhauled.accessor;
+
+import johnsmith.enchantingoverhauled.lib.cache.TableSurveyCache;
+
+/**
+ * Accessor interface for {@link net.minecraft.world.level.Level}.
+ * <p>
+ * This interface is implemented via Mixin on the {@code Level} class.
+ * It exposes the level-scoped {@link TableSurveyCache} that stores the power surveys
+ * of enchanting tables in that level.
+ */
+public interface TableSurveyCacheAccessor {
+
+    /**
+     * Gets the enchanting table survey cache owned by this level.
+     *
+     * @return The survey cache.
+     */
+    TableSurveyCache enchanting_overhauled$getTableSurveyCache();
+}
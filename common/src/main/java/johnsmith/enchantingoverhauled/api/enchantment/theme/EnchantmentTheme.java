@@ -2,6 +2,7 @@ package johnsmith.enchantingoverhauled.api.enchantment.theme;
 
 import johnsmith.enchantingoverhauled.api.enchantment.theme.effect.EffectData;
 import johnsmith.enchantingoverhauled.api.enchantment.theme.power.PowerProvider;
+import johnsmith.enchantingoverhauled.api.enchantment.theme.roll.LevelRollCurve;
 
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
@@ -25,12 +26,15 @@ import java.util.Optional;
  * enchanting power for this theme, and how much.
  * @param effects          An optional wrapper containing the particle and sound effects to spawn when
  * this theme is dominant at the enchanting table.
+ * @param levelRoll        An optional {@link LevelRollCurve} deciding how far the levels of this theme's enchantments
+ * are raised when applied at the enchanting table. Defaults to {@link LevelRollCurve#DEFAULT}.
  */
 public record EnchantmentTheme(
         Component name,
         Optional<Integer> colorCode,
         List<PowerProvider> powerProviders,
-        Optional<EffectData> effects
+        Optional<EffectData> effects,
+        Optional<LevelRollCurve> levelRoll
 ) {
     /**
      * The codec responsible for serializing and deserializing instances of this record from data files (e.g., JSON).
@@ -40,7 +44,8 @@ public record EnchantmentTheme(
                     ComponentSerialization.CODEC.fieldOf("name").forGetter(EnchantmentTheme::name),
                     Codec.INT.optionalFieldOf("color_code").forGetter(EnchantmentTheme::colorCode),
                     PowerProvider.CODEC.listOf().fieldOf("power_providers").forGetter(EnchantmentTheme::powerProviders),
-                    EffectData.CODEC.optionalFieldOf("effects").forGetter(EnchantmentTheme::effects)
+                    EffectData.CODEC.optionalFieldOf("effects").forGetter(EnchantmentTheme::effects),
+                    LevelRollCurve.CODEC.optionalFieldOf("level_roll").forGetter(EnchantmentTheme::levelRoll)
             ).apply(instance, EnchantmentTheme::new)
     );
 }
\ No newline at end of file
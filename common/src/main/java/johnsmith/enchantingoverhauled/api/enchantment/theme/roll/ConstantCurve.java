@@ -0,0 +1,53 @@
+package johnsmith.enchantingoverhauled.api.enchantment.theme.roll;
+
+import com.mojang.serialization.Codec;
+import com.mojang.serialization.MapCodec;
+import com.mojang.serialization.codecs.RecordCodecBuilder;
+
+/**
+ * A data-driven level roll curve whose step chance does not depend on the target's enchantability.
+ * <p>
+ * A chance of 0.0 always yields the offered level, a chance of 1.0 always yields the max level.
+ *
+ * @param chance The success chance of every level step, between 0.0 and 1.0.
+ */
+public record ConstantCurve(
+        double chance
+) implements LevelRollCurve {
+    /**
+     * The codec responsible for serializing and deserializing instances of this record from data files (e.g., JSON).
+     */
+    public static final MapCodec<ConstantCurve> CODEC = RecordCodecBuilder.mapCodec(instance ->
+            instance.group(
+                    Codec.doubleRange(0.0D, 1.0D).fieldOf("chance").forGetter(ConstantCurve::chance)
+            ).apply(instance, ConstantCurve::new)
+    );
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double successChance(int enchantability) {
+        return this.chance;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return The constant ID string for this curve type: "constant".
+     */
+    @Override
+    public String getTypeId() {
+        return LevelRollCurveType.CONSTANT.getId();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return The {@link MapCodec} for this curve type.
+     */
+    @Override
+    public MapCodec<? extends LevelRollCurve> getCodec() {
+        return CODEC;
+    }
+}
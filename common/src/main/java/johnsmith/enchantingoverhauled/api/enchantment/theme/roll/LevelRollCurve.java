@@ -0,0 +1,60 @@
+package johnsmith.enchantingoverhauled.api.enchantment.theme.roll;
+
+import com.mojang.serialization.Codec;
+import com.mojang.serialization.MapCodec;
+
+/**
+ * A sealed interface representing the curve that decides how far an enchantment's level is raised
+ * when it is applied or upgraded at the enchanting table.
+ * <p>
+ * Starting from the offered level, the level is raised one step at a time: each step succeeds with the
+ * probability returned by {@link #successChance(int)} for the target item's enchantability, and the first
+ * failure (or reaching the enchantment's max level) ends the roll. Themes may select a curve for their
+ * enchantments through {@link johnsmith.enchantingoverhauled.api.enchantment.theme.EnchantmentTheme#levelRoll()}.
+ *
+ * @see ConstantCurve
+ * @see ScaledPowerCurve
+ */
+public sealed interface LevelRollCurve permits
+        ConstantCurve,
+        ScaledPowerCurve
+{
+    /**
+     * The curve used by enchantments whose theme does not define one: {@code 2 * (enchantability / 50)^2}.
+     */
+    LevelRollCurve DEFAULT = new ScaledPowerCurve(2.0D, 2.0D);
+
+    /**
+     * The primary codec for serializing and deserializing any implementation of {@code LevelRollCurve}.
+     * <p>
+     * It uses a dispatch mechanism based on the string value of the "type" field in the JSON,
+     * delegating decoding to the appropriate codec retrieved via {@link LevelRollCurveType#getCodecById(String)}.
+     */
+    Codec<LevelRollCurve> CODEC = Codec.STRING.dispatch(
+            "type",
+            LevelRollCurve::getTypeId,
+            LevelRollCurveType::getCodecById
+    );
+
+    /**
+     * Calculates the chance of a single level step succeeding.
+     *
+     * @param enchantability The enchantability of the target item, clamped between 1 and 50.
+     * @return The success chance, between 0.0 and 1.0.
+     */
+    double successChance(int enchantability);
+
+    /**
+     * Retrieves the unique identifier string associated with this specific implementation of the curve.
+     *
+     * @return The unique ID string (e.g., "scaled_power").
+     */
+    String getTypeId();
+
+    /**
+     * Retrieves the {@link MapCodec} responsible for encoding and decoding this specific curve implementation.
+     *
+     * @return The specialized codec for this class.
+     */
+    MapCodec<? extends LevelRollCurve> getCodec();
+}
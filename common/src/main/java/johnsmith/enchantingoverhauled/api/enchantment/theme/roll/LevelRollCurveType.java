@@ -0,0 +1,80 @@
+package johnsmith.enchantingoverhauled.api.enchantment.theme.roll;
+
+import com.mojang.serialization.MapCodec;
+
+/**
+ * An enumeration representing the different types of level roll curves available
+ * in the enchantment theme system.
+ * <p>
+ * This enum serves as the key component in the {@link LevelRollCurve} dispatch codec,
+ * mapping the string ID found in configuration files (e.g., JSON) to the corresponding
+ * {@link MapCodec} responsible for deserializing that specific curve implementation.
+ */
+public enum LevelRollCurveType {
+    /**
+     * Identifies the curve with a fixed step chance.
+     */
+    CONSTANT("constant", ConstantCurve.CODEC),
+    /**
+     * Identifies the curve whose step chance is a scaled power of the target's enchantability.
+     */
+    SCALED_POWER("scaled_power", ScaledPowerCurve.CODEC);
+
+    /**
+     * The unique string identifier used in data files to refer to this curve type.
+     */
+    private final String id;
+
+    /**
+     * The specialized codec responsible for encoding and decoding the specific {@link LevelRollCurve} implementation.
+     */
+    private final MapCodec<? extends LevelRollCurve> codec;
+
+    /**
+     * Constructs a {@code LevelRollCurveType}.
+     *
+     * @param id    The unique string identifier.
+     * @param codec The corresponding map codec for the curve class.
+     */
+    LevelRollCurveType(String id, MapCodec<? extends LevelRollCurve> codec) {
+        this.id = id;
+        this.codec = codec;
+    }
+
+    /**
+     * Retrieves the unique string identifier for this curve type.
+     *
+     * @return The unique ID string.
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Retrieves the map codec associated with this curve type.
+     *
+     * @return The {@link MapCodec} for the corresponding {@link LevelRollCurve} implementation.
+     */
+    public MapCodec<? extends LevelRollCurve> getCodec() {
+        return codec;
+    }
+
+    /**
+     * Static helper method used by the {@link LevelRollCurve#CODEC} dispatch logic.
+     * <p>
+     * It maps a raw string identifier (read from the "type" field in a data file)
+     * to the appropriate {@link MapCodec} for deserialization.
+     *
+     * @param id The string identifier of the curve type.
+     * @return The corresponding {@link MapCodec} for that ID.
+     * @throws IllegalArgumentException if the provided ID does not match any registered curve type.
+     */
+    public static MapCodec<? extends LevelRollCurve> getCodecById(String id) {
+        for (LevelRollCurveType type : values()) {
+            if (type.id.equals(id)) {
+                return type.codec;
+            }
+        }
+        throw new IllegalArgumentException("Unknown LevelRollCurve type: " + id);
+    }
+}
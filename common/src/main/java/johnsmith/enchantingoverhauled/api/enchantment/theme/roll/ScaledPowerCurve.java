@@ -0,0 +1,58 @@
+package johnsmith.enchantingoverhauled.api.enchantment.theme.roll;
+
+import com.mojang.serialization.Codec;
+import com.mojang.serialization.MapCodec;
+import com.mojang.serialization.codecs.RecordCodecBuilder;
+
+/**
+ * A data-driven level roll curve whose step chance grows with the target's enchantability:
+ * {@code scale * (enchantability / 50)^exponent}, clamped between 0.0 and 1.0.
+ * <p>
+ * The {@link LevelRollCurve#DEFAULT default} curve uses a scale and an exponent of 2, which widens
+ * the gap between items of low and high enchantability.
+ *
+ * @param scale    The factor applied to the normalized enchantability term.
+ * @param exponent The power the normalized enchantability (0.02 - 1.0) is raised to.
+ */
+public record ScaledPowerCurve(
+        double scale,
+        double exponent
+) implements LevelRollCurve {
+    /**
+     * The codec responsible for serializing and deserializing instances of this record from data files (e.g., JSON).
+     */
+    public static final MapCodec<ScaledPowerCurve> CODEC = RecordCodecBuilder.mapCodec(instance ->
+            instance.group(
+                    Codec.DOUBLE.fieldOf("scale").forGetter(ScaledPowerCurve::scale),
+                    Codec.DOUBLE.fieldOf("exponent").forGetter(ScaledPowerCurve::exponent)
+            ).apply(instance, ScaledPowerCurve::new)
+    );
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double successChance(int enchantability) {
+        return Math.clamp(this.scale * Math.pow(enchantability / 50.0D, this.exponent), 0.0D, 1.0D);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return The constant ID string for this curve type: "scaled_power".
+     */
+    @Override
+    public String getTypeId() {
+        return LevelRollCurveType.SCALED_POWER.getId();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return The {@link MapCodec} for this curve type.
+     */
+    @Override
+    public MapCodec<? extends LevelRollCurve> getCodec() {
+        return CODEC;
+    }
+}
@@ -46,6 +46,15 @@ public class Config {
     public static final Property.Binary BINARY_MINEABLE_ENCHANTING_TABLE = GROUP_ENCHANTING_TABLE.register(
             new Property.Binary("mineable_enchanting_table", "Whether the default enchanting table can be mined or instead drops its tome.", GROUP_ENCHANTING_TABLE, false)
     );
+    public static final Property.Binary BINARY_ASYNC_OPTION_GENERATION = GROUP_ENCHANTING_TABLE.register(
+            new Property.Binary("async_option_generation", "Whether enchanting altar options are computed off the server thread and applied on the next tick.", GROUP_ENCHANTING_TABLE, false)
+    );
+    public static final Property.Binary BINARY_CLIENT_OPTION_PREVIEW = GROUP_ENCHANTING_TABLE.register(
+            new Property.Binary("client_option_preview", "Whether the client previews enchanting altar options until the server's options arrive.", GROUP_ENCHANTING_TABLE, true)
+    );
+    public static final Property.Binary BINARY_SHIFT_CLICK_BATCH_ENCHANTING = GROUP_ENCHANTING_TABLE.register(
+            new Property.Binary("shift_click_batch_enchanting", "Whether shift-clicking an enchanting altar option also applies every other affordable option at once.", GROUP_ENCHANTING_TABLE, false)
+    );
     // endregion
 
     // region Anvil Values
@@ -1,56 +1,46 @@
 package johnsmith.enchantingoverhauled.lib;
 
 import johnsmith.enchantingoverhauled.Constants;
+import johnsmith.enchantingoverhauled.api.enchantment.EnchantmentSource;
 import johnsmith.enchantingoverhauled.api.enchantment.effect.EnchantmentEffectComponentRegistry;
 import johnsmith.enchantingoverhauled.api.enchantment.effect.SilkTouchEffect;
 import johnsmith.enchantingoverhauled.api.enchantment.theme.EnchantmentTheme;
-import johnsmith.enchantingoverhauled.api.enchantment.theme.power.bonus.AddIfBlockStateBonus;
-import johnsmith.enchantingoverhauled.api.enchantment.theme.power.bonus.CountItemsInInventoryBonus;
-import johnsmith.enchantingoverhauled.api.enchantment.theme.power.bonus.MultiplyByBlockStateBonus;
-import johnsmith.enchantingoverhauled.api.enchantment.theme.power.bonus.PowerBonus;
 import johnsmith.enchantingoverhauled.api.enchantment.theme.registry.EnchantmentThemeRegistry;
-import johnsmith.enchantingoverhauled.api.enchantment.theme.power.PowerProvider;
 import johnsmith.enchantingoverhauled.config.Config;
+import johnsmith.enchantingoverhauled.lib.cache.CandidatePoolCache;
+import johnsmith.enchantingoverhauled.lib.cache.EnchantmentIndex;
+import johnsmith.enchantingoverhauled.lib.cache.TableSurveyCache;
+import johnsmith.enchantingoverhauled.lib.cache.ThemePowerIndex;
 import johnsmith.enchantingoverhauled.platform.Services;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 
-import it.unimi.dsi.fastutil.objects.Object2IntMap;
-
-import net.minecraft.Util;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Holder;
 import net.minecraft.core.Registry;
 import net.minecraft.core.RegistryAccess;
 import net.minecraft.core.component.DataComponentType;
 import net.minecraft.core.component.DataComponents;
-import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.core.registries.Registries;
 import net.minecraft.network.chat.Component;
 import net.minecraft.network.chat.Style;
 import net.minecraft.resources.ResourceKey;
 import net.minecraft.resources.ResourceLocation;
-import net.minecraft.tags.BlockTags;
 import net.minecraft.tags.EnchantmentTags;
 import net.minecraft.tags.TagKey;
 import net.minecraft.util.FormattedCharSequence;
 import net.minecraft.util.RandomSource;
-import net.minecraft.world.Container;
 import net.minecraft.world.flag.FeatureFlagSet;
 import net.minecraft.world.item.*;
 import net.minecraft.world.item.enchantment.*;
-import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.state.BlockState;
-import net.minecraft.world.level.block.EnchantingTableBlock;
-import net.minecraft.world.level.block.entity.BlockEntity;
 import net.minecraft.world.level.Level;
 
-import net.minecraft.world.level.block.state.properties.IntegerProperty;
-import net.minecraft.world.level.block.state.properties.Property;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.function.Predicate;
 import java.util.function.ToIntFunction;
 import java.util.stream.Collectors;
 
@@ -86,6 +76,11 @@ public class EnchantmentLib {
      */
     private static final int TOME_ENCHANTMENT_COUNT = 3;
 
+    /**
+     * The number of enchantment options offered by an enchanting table.
+     */
+    public static final int OPTION_COUNT = 3;
+
     /**
      * Lookup table for Roman numeral conversion values.
      */
@@ -151,6 +146,29 @@ public class EnchantmentLib {
         return (ItemEnchantments)stack.getOrDefault(getEnchantmentsComponentType(stack), ItemEnchantments.EMPTY);
     }
 
+    /**
+     * Gets the non-curse enchantments of the given ItemStack without copying the stack
+     * (unlike {@link #removeCursesFrom}).
+     *
+     * @param stack          The ItemStack to check.
+     * @param registryAccess The registry access used to look up the {@link EnchantmentIndex}.
+     * @return The memoized curse-free view of the stack's enchantments.
+     */
+    public static EnchantmentView getEnchantmentsWithoutCurses(ItemStack stack, RegistryAccess registryAccess) {
+        return getEnchantmentsWithoutCurses(stack, EnchantmentIndex.get(registryAccess));
+    }
+
+    /**
+     * Gets the non-curse enchantments of the given ItemStack using an already resolved index.
+     *
+     * @param stack The ItemStack to check.
+     * @param index The enchantment index of the current registry access.
+     * @return The memoized curse-free view of the stack's enchantments.
+     */
+    public static EnchantmentView getEnchantmentsWithoutCurses(ItemStack stack, EnchantmentIndex index) {
+        return EnchantmentView.of(getEnchantments(stack)).withoutCurses(index);
+    }
+
     /**
      * Helper method for getting the correct enchantments component type.
      *
@@ -171,16 +189,25 @@ public class EnchantmentLib {
      * @return The integer power level (0 or the calculated value).
      */
     public static int getEnchantingPower(Level level, BlockPos providerPos, EnchantmentTheme theme) {
-        BlockState state = level.getBlockState(providerPos);
-        Holder<Block> blockEntry = state.getBlockHolder();
+        return getEnchantingPower(level, providerPos, level.getBlockState(providerPos), theme);
+    }
 
-        for (PowerProvider provider : theme.powerProviders()) {
-            if (provider.blocks().contains(blockEntry)) {
-                return calculatePower(level, providerPos, state, provider);
-            }
-        }
+    /**
+     * Calculates the enchanting power provided by an already read block state for a specific theme.
+     *
+     * @param level The level to check.
+     * @param providerPos The BlockPos of the potential power-providing block.
+     * @param state The current state of the block at {@code providerPos}.
+     * @param theme The EnchantmentTheme to calculate power for.
+     * @return The integer power level (0 or the calculated value).
+     */
+    public static int getEnchantingPower(Level level, BlockPos providerPos, BlockState state, EnchantmentTheme theme) {
+        ThemePowerIndex.Entry entry = ThemePowerIndex.get(level.registryAccess()).getEntry(state.getBlock(), theme);
 
-        return 0;
+        if (entry == null) {
+            return 0;
+        }
+        return entry.getPower(level, providerPos, state);
     }
 
     /**
@@ -192,77 +219,29 @@ public class EnchantmentLib {
      * @return The highest integer power level found across all themes (0 if none).
      */
     public static int getAgnosticEnchantingPower(Level level, BlockPos providerPos) {
-        BlockState state = level.getBlockState(providerPos);
-        Holder<Block> blockEntry = state.getBlockHolder();
-        int maxPower = 0;
-
-        RegistryAccess registryAccess = level.registryAccess();
-        Optional<Registry<EnchantmentTheme>> registryOpt = Services.PLATFORM.getThemeRegistry(registryAccess);
-
-        if (registryOpt.isPresent()) {
-            Registry<EnchantmentTheme> registry = registryOpt.get();
-            for (EnchantmentTheme theme : registry) {
-                for (PowerProvider provider : theme.powerProviders()) {
-                    if (provider.blocks().contains(blockEntry)) {
-                        int currentPower = calculatePower(level, providerPos, state, provider);
-                        if (currentPower > maxPower) {
-                            maxPower = currentPower;
-                        }
-                        break;
-                    }
-                }
-            }
-        }
-        return maxPower;
+        return getAgnosticEnchantingPower(level, providerPos, level.getBlockState(providerPos));
     }
 
     /**
-     * Helper method to calculate the total power from a single PowerProvider,
-     * including all its data-driven bonuses.
+     * Calculates the highest enchanting power provided by an already read block state,
+     * regardless of theme.
+     *
+     * @param level The level to check.
+     * @param providerPos The BlockPos of the potential power-providing block.
+     * @param state The current state of the block at {@code providerPos}.
+     * @return The highest integer power level found across all themes (0 if none).
      */
-    private static int calculatePower(Level level, BlockPos pos, BlockState state, PowerProvider provider) {
-        int totalPower = provider.power();
-        int basePower = provider.power();
+    public static int getAgnosticEnchantingPower(Level level, BlockPos providerPos, BlockState state) {
+        ThemePowerIndex.Entry[] entries = ThemePowerIndex.get(level.registryAccess()).getEntries(state.getBlock());
+        int maxPower = 0;
 
-        for (PowerBonus bonus : provider.bonuses()) {
-            try {
-                if (bonus instanceof MultiplyByBlockStateBonus(String property)) {
-                    Property<?> prop = state.getBlock().getStateDefinition().getProperty(property);
-                    if (prop instanceof IntegerProperty intProp) {
-                        int multiplier = state.getValue(intProp);
-                        totalPower = totalPower - basePower + (basePower * multiplier);
-                    }
-                } else if (bonus instanceof AddIfBlockStateBonus(String property, String value, int bonus1)) {
-                    Property<?> prop = state.getBlock().getStateDefinition().getProperty(property);
-                    if (prop != null) {
-                        String currentValue = state.getValue(prop).toString();
-                        if (currentValue.equalsIgnoreCase(value)) {
-                            totalPower += bonus1;
-                        }
-                    }
-                } else if (bonus instanceof CountItemsInInventoryBonus(
-                        net.minecraft.core.HolderSet<Item> items, int bonusPerItem
-                )) {
-                    BlockEntity be = level.getBlockEntity(pos);
-                    if (be == null) continue;
-
-                    int itemCount = 0;
-                    if (be instanceof Container inventory) {
-                        for (int i = 0; i < inventory.getContainerSize(); i++) {
-                            ItemStack stack = inventory.getItem(i);
-                            if (items.contains(stack.getItemHolder())) {
-                                itemCount += stack.getCount();
-                            }
-                        }
-                    }
-                    totalPower += (itemCount * bonusPerItem);
-                }
-            } catch (Exception e) {
-                Constants.LOG.warn("Failed to calculate power bonus for {}: {}",
-                        BuiltInRegistries.BLOCK.getId(state.getBlock()), e.getMessage());
+        for (ThemePowerIndex.Entry entry : entries) {
+            int currentPower = entry.getPower(level, providerPos, state);
+            if (currentPower > maxPower) {
+                maxPower = currentPower;
             }
         }
-        return totalPower;
+        return maxPower;
     }
 
     /**
@@ -272,6 +251,13 @@ public class EnchantmentLib {
         return getAgnosticEnchantingPower(level, providerPos) > 0;
     }
 
+    /**
+     * Client-safe check to see if an already read block state *could* provide power for *any* theme.
+     */
+    public static boolean shouldSpawnParticles(Level level, BlockPos providerPos, BlockState state) {
+        return getAgnosticEnchantingPower(level, providerPos, state) > 0;
+    }
+
     /**
      * Creates a copy of the target stack with all Cursed enchantments removed
      * from its 'minecraft:enchantments' or 'minecraft:stored_enchantments' component.
@@ -313,12 +299,12 @@ public class EnchantmentLib {
      * @return A map containing active enchantments and their levels.
      */
     public static Map<Holder<Enchantment>, Integer> deserializeEnchantments(ItemStack target) {
-        ItemEnchantments component = EnchantmentHelper.getEnchantmentsForCrafting(target);
-        return component.entrySet().stream()
-                .collect(Collectors.toMap(
-                        Map.Entry::getKey, // Key is now Holder<Enchantment>
-                        Object2IntMap.Entry::getIntValue
-                ));
+        EnchantmentView view = EnchantmentView.of(EnchantmentHelper.getEnchantmentsForCrafting(target));
+        Map<Holder<Enchantment>, Integer> map = Maps.newLinkedHashMapWithExpectedSize(view.size());
+        for (int i = 0; i < view.size(); i++) {
+            map.put(view.holderAt(i), view.levelAt(i));
+        }
+        return map;
     }
 
     /**
@@ -328,14 +314,19 @@ public class EnchantmentLib {
      * @return A List of entries.
      */
     public static List<EnchantmentInstance> getEnchantmentsAsList(ItemEnchantments enchantments) {
-        // EnchantmentInstance now takes Holder<Enchantment> in its constructor
-        return enchantments.entrySet().stream().map(
-                entry -> new EnchantmentInstance(entry.getKey(), entry.getIntValue())
-        ).collect(Collectors.toList());
+        EnchantmentView view = EnchantmentView.of(enchantments);
+        List<EnchantmentInstance> list = new ArrayList<>(view.size());
+        for (int i = 0; i < view.size(); i++) {
+            list.add(view.instanceAt(i));
+        }
+        return list;
     }
 
     /**
      * Retrieves a specific enchantment entry by its order/position in the item's enchantment list.
+     * <p>
+     * Positions follow the stable order of the component's {@link EnchantmentView}; callers doing
+     * repeated indexed access should use the view directly to avoid allocating entries.
      *
      * @param enchantments The enchantment component.
      * @param index The zero-based index of the enchantment to retrieve.
@@ -343,29 +334,11 @@ public class EnchantmentLib {
      */
     @Nullable
     public static Map.Entry<Holder<Enchantment>, Integer> getEnchantmentByPosition(ItemEnchantments enchantments, int index) {
-        if (enchantments == null || index < 0) {
+        EnchantmentView view = EnchantmentView.of(enchantments);
+        if (index < 0 || index >= view.size()) {
             return null;
         }
-
-        Iterator<Map.Entry<Holder<Enchantment>, Integer>> iterator = enchantments.entrySet().stream().collect(Collectors.toMap(
-                Map.Entry::getKey,
-                Object2IntMap.Entry::getIntValue
-        )).entrySet().iterator();
-
-
-        for (int i = 0; i < index; i++) {
-            if (iterator.hasNext()) {
-                iterator.next();
-            } else {
-                return null;
-            }
-        }
-
-        if (iterator.hasNext()) {
-            return iterator.next();
-        }
-
-        return null;
+        return Map.entry(view.holderAt(index), view.levelAt(index));
     }
 
     /**
@@ -388,47 +361,22 @@ public class EnchantmentLib {
 
     /**
      * Checks if an enchanting table has any valid power providers for a *specific theme* nearby.
+     * <p>
+     * This uses the cached survey of the table; callers that query several themes should take a single
+     * {@link TableSurvey} and use {@link TableSurvey#isThemeActive} instead.
      */
     public static boolean hasThemedPowerProvider(Level level, BlockPos tablePos, ResourceKey<EnchantmentTheme> themeKey) {
         if (themeKey.equals(EnchantmentThemeRegistry.DEFAULT)) {
             return false;
         }
-
-        RegistryAccess registryAccess = level.registryAccess();
-        Optional<Registry<EnchantmentTheme>> registryOpt = Services.PLATFORM.getThemeRegistry(registryAccess);
-
-        if (registryOpt.isEmpty()) return false;
-
-        Optional<EnchantmentTheme> themeOpt = registryOpt.get().getOptional(themeKey);
-
-        if (themeOpt.isEmpty()) {
-            return false;
-        }
-        EnchantmentTheme theme = themeOpt.get();
-
-        for (BlockPos providerOffset : EnchantingTableBlock.BOOKSHELF_OFFSETS) {
-            BlockPos transmitterPos = tablePos.offset(providerOffset.getX() / 2, providerOffset.getY(), providerOffset.getZ() / 2);
-
-            if (level.getBlockState(transmitterPos).is(BlockTags.ENCHANTMENT_POWER_TRANSMITTER)) {
-                BlockPos providerPos = tablePos.offset(providerOffset);
-                BlockState providerState = level.getBlockState(providerPos);
-                Holder<Block> blockEntry = providerState.getBlockHolder();
-
-                for (PowerProvider provider : theme.powerProviders()) {
-                    if (provider.blocks().contains(blockEntry)) {
-                        return true;
-                    }
-                }
-            }
-        }
-        return false;
+        return TableSurveyCache.survey(level, tablePos).isThemeActive(themeKey);
     }
 
     /**
      * Generates a randomized list of possible enchantments for an item based on its enchantability,
-     * filtered by available themed power providers.
+     * filtered by the themes active in the given table survey.
      */
-    public static List<EnchantmentInstance> generateEnchantments(FeatureFlagSet enabledFeatures, RandomSource random, ItemStack target, boolean treasureAllowed, Level level, BlockPos pos) {
+    public static List<EnchantmentInstance> generateEnchantments(FeatureFlagSet enabledFeatures, RandomSource random, ItemStack target, boolean treasureAllowed, RegistryAccess registryAccess, TableSurvey survey) {
         List<EnchantmentInstance> enchantments = Lists.newArrayList();
         Item item = target.getItem();
 
@@ -437,7 +385,7 @@ public class EnchantmentLib {
             return enchantments;
         }
 
-        List<EnchantmentInstance> possibleEntries = EnchantmentLib.getPossibleEntries(enabledFeatures, target, treasureAllowed, level, pos);
+        List<EnchantmentInstance> possibleEntries = EnchantmentLib.getPossibleEntries(enabledFeatures, target, treasureAllowed, registryAccess, survey);
 
         enchantments.addAll(possibleEntries);
         enchantments = EnchantmentLib.weightedSkewedShuffle(enchantments, entry -> entry.getWeight().asInt(), random);
@@ -446,69 +394,389 @@ public class EnchantmentLib {
     }
 
     /**
-     * Scans the theme registry to find which Theme Tag matches this enchantment.
-     * Returns the ResourceKey of the matching theme, or DEFAULT if none found.
+     * Generates only the first {@code count} enchantments of the order produced by
+     * {@link #generateEnchantments(FeatureFlagSet, RandomSource, ItemStack, boolean, RegistryAccess, TableSurvey)}
+     * that pass the given filter, without shuffling the entire candidate pool (see {@link WeightedSampler}).
+     *
+     * @param count The maximum number of enchantments to return.
+     * @param filter Candidates failing this test are skipped.
      */
-    public static ResourceKey<EnchantmentTheme> getThemeKey(RegistryAccess registryAccess, Holder<Enchantment> enchantment) {
-        var themeRegistryOpt = Services.PLATFORM.getThemeRegistry(registryAccess);
-        if (themeRegistryOpt.isEmpty()) return EnchantmentThemeRegistry.DEFAULT;
-
-        // Iterate all registered Themes
-        for (var themeRef : themeRegistryOpt.get().holders().toList()) {
-            ResourceLocation id = themeRef.key().location();
-            // Construct the expected Tag: e.g., #enchanting_overhauled:theme/marine
-            TagKey<Enchantment> tag = TagKey.create(
-                    Registries.ENCHANTMENT,
-                    ResourceLocation.fromNamespaceAndPath(id.getNamespace(), "theme/" + id.getPath())
-            );
-
-            // Check if the enchantment has this tag
-            if (enchantment.is(tag)) {
-                return themeRef.key();
+    public static List<EnchantmentInstance> generateEnchantments(FeatureFlagSet enabledFeatures, RandomSource random, ItemStack target, boolean treasureAllowed, RegistryAccess registryAccess, TableSurvey survey, int count, Predicate<EnchantmentInstance> filter) {
+        if (target.getItem().getEnchantmentValue() <= 0) {
+            return Lists.newArrayList();
+        }
+
+        List<EnchantmentInstance> possibleEntries = EnchantmentLib.getPossibleEntries(enabledFeatures, target, treasureAllowed, registryAccess, survey);
+        return WeightedSampler.sampleTopK(possibleEntries, count, entry -> entry.getWeight().asInt(), filter, random);
+    }
+
+    /**
+     * Computes the three enchantment options of an enchanting table for a snapshot of its menu's state.
+     * <p>
+     * The options are a pure function of the arguments: the random source is re-seeded with {@code seed}
+     * before it is used, so equal inputs yield equal options on either logical side. The server uses this
+     * to fill the menu's synced fields, the client to preview them before they arrive.
+     * <p>
+     * This method only reads its arguments and writes into the returned object, so it is safe
+     * to call off the server thread as long as the stacks are not shared with the live menu.
+     *
+     * @param target The item being enchanted.
+     * @param source The item in the source slot.
+     * @param featureSet The world's enabled features.
+     * @param registryAccess The world's registry access.
+     * @param survey The snapshot of the table's power providers.
+     * @param seed The enchantment seed.
+     * @param random The random source used for table generation.
+     * @return The computed options.
+     */
+    public static EnchantmentOptions computeOptions(
+            ItemStack target,
+            ItemStack source,
+            FeatureFlagSet featureSet,
+            RegistryAccess registryAccess,
+            TableSurvey survey,
+            int seed,
+            RandomSource random
+    ) {
+        int power = survey.getPower();
+        EnchantmentOptions options = EnchantmentOptions.empty(OPTION_COUNT);
+
+        // 1. Set base level requirements (vanilla-like calculation)
+        for (int j = 0; j < OPTION_COUNT; ++j) {
+            options.costs()[j] = (25 - Math.min(power, 24)) * (j + 1);
+            if (options.costs()[j] < j + 1) {
+                options.costs()[j] = 0;
+            }
+        }
+
+        // 2. Populate enchantment options using the new priority logic
+        List<EnchantmentInstance> enchantments = selectOptions(
+                target, source, featureSet, registryAccess, survey, options.sources(), seed, random);
+
+        // 3. Fill the option arrays with data from the generated list
+        EnchantmentIndex index = EnchantmentIndex.get(registryAccess);
+        int slot = 0;
+        for (EnchantmentInstance entry : enchantments) {
+            // Get the ID from the Holder (EnchantmentInstance now holds a Holder<Enchantment>)
+            options.enchantClue()[slot] = index.getId(entry.enchantment);
+            options.levelClue()[slot] = entry.level;
+            ++slot;
+        }
+        return options;
+    }
+
+    /**
+     * Populates the three enchantment option slots based on a priority system:
+     * <ol>
+     * <li><b>Priority 1:</b> Existing enchantments on the {@code target} item (for upgrading).
+     * Sets source to {@link EnchantmentSource#TARGET}.</li>
+     * <li><b>Priority 2:</b> Enchantments from the {@code source} item (for transferring).
+     * Sets source to {@link EnchantmentSource#SOURCE}.</li>
+     * <li><b>Priority 3:</b> New enchantments generated from the table.
+     * Sets source to {@link EnchantmentSource#TABLE}.</li>
+     * </ol>
+     *
+     * @param target The item being enchanted.
+     * @param source The item in the source slot (e.g., book, tome).
+     * @param featureSet The world's enabled features.
+     * @param registryAccess The world's registry access.
+     * @param survey The snapshot of the table's power providers.
+     * @param sources The array receiving the {@link EnchantmentSource} of each slot.
+     * @param seed The enchantment seed used for table generation.
+     * @param random The random source used for table generation.
+     * @return A list of {@link EnchantmentInstance}s, max size 3, to be displayed.
+     */
+    private static List<EnchantmentInstance> selectOptions(
+            ItemStack target,
+            ItemStack source,
+            FeatureFlagSet featureSet,
+            RegistryAccess registryAccess,
+            TableSurvey survey,
+            int[] sources,
+            int seed,
+            RandomSource random
+    ) {
+        List<EnchantmentInstance> list = new ArrayList<>();
+        Set<Enchantment> addedEnchantments = new HashSet<>();
+
+        EnchantmentIndex index = EnchantmentIndex.get(registryAccess);
+        int arraySize = sources.length; // Should be 3
+
+        // Reset all enchantment sources
+        for (int i = 0; i < arraySize; i++) {
+            sources[i] = EnchantmentSource.NONE.getId();
+        }
+
+        // Priority 1: Add all the target's current enchantments
+        readEnchantmentsFromTarget(target, index, list, sources, addedEnchantments);
+
+        // Priority 2: Check source item for any higher-level upgrades and overwrite
+        overwriteTargetEnchantmentsFromSource(target, source, list, sources, addedEnchantments);
+
+        // Priority 3: Check source item for any *new* enchantments and append if space
+        appendSourceEnchantments(target, source, list, sources, addedEnchantments, index);
+
+        // Priority 4: Fill remaining slots from the table
+        generateEnchantmentsFromTable(target, featureSet, list, sources, registryAccess, survey, seed, random);
+
+        return list;
+    }
+
+    /**
+     * Fills the enchantment list with existing enchantments from the target item.
+     * <p>
+     * This is Priority 1. These enchantments are added to the list first,
+     * and their source is marked as {@link EnchantmentSource#TARGET}.
+     *
+     * @param target            The target item. Its curses are skipped to prevent upgrading them.
+     * @param index             The enchantment index used to identify curses.
+     * @param list              The master list of enchantments to populate.
+     * @param sources           The source of each slot; its length is the maximum number of slots (e.g., 3).
+     * @param addedEnchantments A set used to track added enchantments to prevent duplicates.
+     */
+    private static void readEnchantmentsFromTarget(
+            ItemStack target,
+            EnchantmentIndex index,
+            List<EnchantmentInstance> list,
+            int[] sources,
+            Set<Enchantment> addedEnchantments
+    ) {
+        int arraySize = sources.length;
+        if (target.isEnchanted()) {
+            EnchantmentView enchants = EnchantmentView.of(getEnchantments(target)).withoutCurses(index);
+
+            for (int j = 0; j < enchants.size(); j++) {
+                if (list.size() >= arraySize) break; // Stop if slots are full
+
+                Holder<Enchantment> enchantment = enchants.holderAt(j);
+                int level = enchants.levelAt(j);
+
+                // Add to list, mark in set, and set source
+                list.add(new EnchantmentInstance(enchantment, level));
+                addedEnchantments.add(enchantment.value());
+                sources[list.size() - 1] = EnchantmentSource.TARGET.getId();
             }
         }
-        return EnchantmentThemeRegistry.DEFAULT;
     }
 
     /**
-     * Gets a list of all enchantment entries that can possibly be applied to the given item,
-     * filtered by the available themed power providers.
+     * Checks the source item for enchantments that are a higher level than
+     * enchantments already on the target item and overwrites them in the list.
+     * <p>
+     * This is Priority 2. It allows a source item to upgrade an existing
+     * enchantment even if all 3 slots are already full.
+     *
+     * @param target            The target item (for compatibility check).
+     * @param source            The source item.
+     * @param list              The master list (already populated with TARGET enchants).
+     * @param sources           The source of each slot.
+     * @param addedEnchantments The set of enchants already processed.
      */
-    public static List<EnchantmentInstance> getPossibleEntries(FeatureFlagSet enabledFeatures, ItemStack target, boolean treasureAllowed, Level level, BlockPos pos) {
-        List<EnchantmentInstance> enchantments = Lists.newArrayList();
-        boolean isTargetBook = target.is(Items.BOOK);
+    private static void overwriteTargetEnchantmentsFromSource(
+            ItemStack target,
+            ItemStack source,
+            List<EnchantmentInstance> list,
+            int[] sources,
+            Set<Enchantment> addedEnchantments
+    ) {
+        // Only proceed if a source item exists and target is not a book
+        if (source.isEmpty() || target.is(Items.BOOK)) {
+            return;
+        }
 
-        // Use the registry from the level to iterate holders
-        Registry<Enchantment> registry = level.registryAccess().registryOrThrow(Registries.ENCHANTMENT);
+        EnchantmentView sourceEnchantments = EnchantmentView.of(getEnchantments(source));
 
-        for (Holder<Enchantment> enchantmentHolder : registry.holders().toList()) {
-            Enchantment enchantment = enchantmentHolder.value();
+        for (int j = 0; j < sourceEnchantments.size(); j++) {
+            Enchantment sourceEnchant = sourceEnchantments.holderAt(j).value();
+            int sourceLevel = sourceEnchantments.levelAt(j);
 
-            // UPDATED: Use the new helper instead of the accessor
-            ResourceKey<EnchantmentTheme> themeKey = getThemeKey(level.registryAccess(), enchantmentHolder);
+            // Only check enchantments that are already on the target
+            if (addedEnchantments.contains(sourceEnchant) && sourceEnchant.canEnchant(target)) {
 
-            boolean isThemed = !themeKey.equals(EnchantmentThemeRegistry.DEFAULT);
-            boolean themeActive = false;
+                // Find the matching enchantment in the list
+                for (int i = 0; i < list.size(); i++) {
+                    EnchantmentInstance targetEntry = list.get(i);
+                    if (targetEntry.enchantment.value().equals(sourceEnchant)) {
+                        int targetLevel = targetEntry.level;
 
-            if (isThemed) {
-                themeActive = EnchantmentLib.hasThemedPowerProvider(level, pos, themeKey);
-                if (!themeActive) {
-                    continue;
+                        // If source is strictly higher, replace it in the list
+                        if (sourceLevel > targetLevel) {
+                            list.set(i, sourceEnchantments.instanceAt(j)); // Replace with the source (higher level) entry
+                            sources[i] = EnchantmentSource.SOURCE.getId();
+                        }
+                        break; // Found the matching enchant, move to the next source enchant
+                    }
                 }
             }
+        }
+    }
 
-            boolean canApplyTreasure = treasureAllowed || themeActive;
+    /**
+     * Checks if a candidate enchantment is compatible with all enchantments currently in the selection list.
+     * This prevents mutually exclusive enchantments (like Sharpness/Smite or Protection/Blast Protection)
+     * from being offered if one is already present.
+     * <p>
+     * The check is a single row test against the precomputed conflict matrix of the {@link EnchantmentIndex}.
+     * The candidate itself is never considered a conflict (handled by duplication checks).
+     *
+     * @param index The enchantment index of the world.
+     * @param existing The registry ids of the enchantments in the selection list (see {@link EnchantmentIndex#toIdSet}).
+     * @param candidate The enchantment to check.
+     */
+    private static boolean isCompatibleWith(EnchantmentIndex index, BitSet existing, Holder<Enchantment> candidate) {
+        return !index.conflictsWith(candidate, existing);
+    }
 
-            if (enchantmentHolder.is(EnchantmentTags.TREASURE) && !canApplyTreasure) {
-                continue;
+    /**
+     * Fills the *remaining* enchantment slots with *new*, applicable enchantments
+     * from the source item.
+     * <p>
+     * This is Priority 3. Enchantments are added only if they are compatible
+     * with the target item and have not already been added from the target itself.
+     * Their source is marked as {@link EnchantmentSource#SOURCE}.
+     *
+     * @param target            The target item (used to check compatibility).
+     * @param source            The source item (e.g., Enchanted Book, Tome).
+     * @param list              The master list of enchantments to populate.
+     * @param sources           The source of each slot; its length is the maximum number of slots (e.g., 3).
+     * @param addedEnchantments A set used to track added enchantments to prevent duplicates.
+     * @param index             The enchantment index of the world (for compatibility checks).
+     */
+    private static void appendSourceEnchantments(
+            ItemStack target,
+            ItemStack source,
+            List<EnchantmentInstance> list,
+            int[] sources,
+            Set<Enchantment> addedEnchantments,
+            EnchantmentIndex index
+    ) {
+        int arraySize = sources.length;
+
+        // Only proceed if we have space, a source item exists, and target is not a book
+        if (list.size() >= arraySize || source.isEmpty() || target.is(Items.BOOK)) {
+            return;
+        }
+
+        EnchantmentView sourceEnchantments = EnchantmentView.of(getEnchantments(source));
+        BitSet existing = index.toIdSet(list);
+
+        for (int j = 0; j < sourceEnchantments.size(); j++) {
+            if (list.size() >= arraySize) break; // Stop if slots are full
+
+            Holder<Enchantment> sourceHolder = sourceEnchantments.holderAt(j);
+            Enchantment sourceEnchant = sourceHolder.value();
+
+            // Check if acceptable AND not already in the list (using the Set)
+            // .add() returns true if the item was successfully added (i.e., not a duplicate)
+            if (addedEnchantments.add(sourceEnchant)) {
+                if (sourceEnchant.canEnchant(target) && isCompatibleWith(index, existing, sourceHolder)) {
+                    list.add(sourceEnchantments.instanceAt(j));
+                    int id = index.getId(sourceHolder);
+                    if (id >= 0) {
+                        existing.set(id);
+                    }
+                    sources[list.size() - 1] = EnchantmentSource.SOURCE.getId();
+                }
             }
+        }
+    }
 
-            if ((enchantmentHolder.is(EnchantmentTags.IN_ENCHANTING_TABLE) || themeActive)
-                    && (isTargetBook || enchantment.canEnchant(target))
-            ) {
-                enchantments.add(new EnchantmentInstance(enchantmentHolder, 1));
+    /**
+     * Fills the remaining enchantment slots with newly generated enchantments from the table.
+     * <p>
+     * This is Priority 4. It uses the standard table logic (re-seeding {@code random} with {@code seed}) to
+     * generate only as many enchantments as there are empty slots in our list,
+     * skipping duplicates and incompatible candidates during selection.
+     */
+    private static void generateEnchantmentsFromTable(
+            ItemStack target,
+            FeatureFlagSet featureSet,
+            List<EnchantmentInstance> list,
+            int[] sources,
+            RegistryAccess registryAccess,
+            TableSurvey survey,
+            int seed,
+            RandomSource random
+    ) {
+        int arraySize = sources.length;
+
+        // Only proceed if we have space
+        if (list.size() < arraySize) {
+            int slotToFill = list.size();
+
+            EnchantmentIndex index = EnchantmentIndex.get(registryAccess);
+            BitSet existing = index.toIdSet(list);
+
+            // Generate new enchantments from the table using custom logic,
+            // filtering out enchantments that are already in our list or conflict with it
+            random.setSeed((long) seed);
+            List<EnchantmentInstance> generated = generateEnchantments(
+                    featureSet, random, target, false, registryAccess, survey, arraySize - slotToFill,
+                    generatedEntry -> {
+                        for (EnchantmentInstance existingEntry : list) {
+                            if (existingEntry.enchantment.equals(generatedEntry.enchantment)) {
+                                return false;
+                            }
+                        }
+                        return isCompatibleWith(index, existing, generatedEntry.enchantment);
+                    });
+
+            int generatedIndex = 0;
+            for (int i = slotToFill; i < arraySize; i++) {
+                // Check if there are still unique, generated enchantments available
+                if (generatedIndex < generated.size()) {
+                    // Get the next available enchantment in order
+                    EnchantmentInstance candidate = generated.get(generatedIndex);
+                    generatedIndex++;
+
+                    // Add it to the list
+                    list.add(candidate);
+
+                    // Set the source ID for this slot
+                    sources[i] = EnchantmentSource.TABLE.getId();
+                } else {
+                    // Stop filling if we run out of generated enchantments
+                    break;
+                }
             }
         }
+    }
+
+    /**
+     * Finds which Theme Tag matches this enchantment using the precomputed {@link EnchantmentIndex}.
+     * Returns the ResourceKey of the matching theme, or DEFAULT if none found.
+     */
+    public static ResourceKey<EnchantmentTheme> getThemeKey(RegistryAccess registryAccess, Holder<Enchantment> enchantment) {
+        return EnchantmentIndex.get(registryAccess).getThemeKey(enchantment);
+    }
+
+    /**
+     * Gets a list of all enchantment entries that can possibly be applied to the given item,
+     * filtered by the themes active in the given table survey.
+     * <p>
+     * The result only depends on the item, the active themes and {@code treasureAllowed}, and is
+     * served from the {@link CandidatePoolCache} of the registry's {@link EnchantmentIndex}.
+     *
+     * @return An immutable list of candidates at level 1.
+     */
+    public static List<EnchantmentInstance> getPossibleEntries(FeatureFlagSet enabledFeatures, ItemStack target, boolean treasureAllowed, RegistryAccess registryAccess, TableSurvey survey) {
+        EnchantmentIndex index = EnchantmentIndex.get(registryAccess);
+        CandidatePoolCache.Key key = new CandidatePoolCache.Key(target.getItem(), survey.getActiveThemes(), treasureAllowed);
+
+        return index.getCandidatePools().get(key, k -> collectPossibleEntries(target, treasureAllowed, index, survey));
+    }
+
+    /**
+     * Collects every candidate for {@link #getPossibleEntries} from the bit sets of the {@link EnchantmentIndex},
+     * in registry order.
+     */
+    private static List<EnchantmentInstance> collectPossibleEntries(ItemStack target, boolean treasureAllowed, EnchantmentIndex index, TableSurvey survey) {
+        BitSet candidates = index.getCandidates(target, survey.getActiveThemes(), treasureAllowed);
+        List<EnchantmentInstance> enchantments = new ArrayList<>(candidates.cardinality());
+
+        for (int id = candidates.nextSetBit(0); id >= 0; id = candidates.nextSetBit(id + 1)) {
+            enchantments.add(new EnchantmentInstance(index.byId(id), 1));
+        }
 
         return enchantments;
     }
@@ -565,11 +833,8 @@ public class EnchantmentLib {
             return tomeStack;
         }
 
-        // Retrieve holders from the world registry
-        List<Holder<Enchantment>> enchantmentList = world.registryAccess().registryOrThrow(Registries.ENCHANTMENT)
-                .holders()
-                .map(h -> (Holder<Enchantment>) h)
-                .collect(Collectors.toList());
+        // Retrieve holders from the world registry (cached until the next reload)
+        List<Holder<Enchantment>> enchantmentList = EnchantmentIndex.get(world.registryAccess()).getHolders();
 
         if (enchantmentList.isEmpty()) {
             return tomeStack;
@@ -580,21 +845,20 @@ public class EnchantmentLib {
 
     /**
      * Applies the "Tome Logic" to a specific list of candidates.
+     * <p>
+     * Up to {@link #TOME_ENCHANTMENT_COUNT} distinct candidates are picked uniformly at random with a
+     * partial Fisher-Yates shuffle, which neither copies nor modifies the candidate list.
      *
-     * @param candidates The list of possible enchantments (as Holders).
+     * @param candidates The list of possible enchantments (as Holders). Must support fast random access.
      */
     public static ItemStack applyTomeEnchantments(ItemStack tomeStack, List<Holder<Enchantment>> candidates, RandomSource random) {
-        List<Holder<Enchantment>> mutableList = new ArrayList<>(candidates);
-        Util.shuffle(mutableList, random);
-
         ItemEnchantments current = tomeStack.getOrDefault(DataComponents.STORED_ENCHANTMENTS, ItemEnchantments.EMPTY);
         ItemEnchantments.Mutable builder = new ItemEnchantments.Mutable(current);
 
+        int[] picks = pickDistinctIndices(candidates.size(), TOME_ENCHANTMENT_COUNT, random);
         int count = 0;
-        for (Holder<Enchantment> entry : mutableList) {
-            if (count >= TOME_ENCHANTMENT_COUNT) {
-                break;
-            }
+        for (int pick : picks) {
+            Holder<Enchantment> entry = candidates.get(pick);
 
             int maxLevel = entry.value().getMaxLevel();
             int newLevel = maxLevel;
@@ -622,6 +886,54 @@ public class EnchantmentLib {
         return tomeStack;
     }
 
+    /**
+     * Picks up to {@code k} distinct indices in {@code [0, size)} uniformly at random.
+     * <p>
+     * This runs the first {@code k} steps of a Fisher-Yates shuffle over a virtual identity permutation,
+     * remembering only the positions that were swapped, so it takes {@code O(k^2)} time regardless of {@code size}.
+     *
+     * @param size The number of elements to pick from.
+     * @param k The maximum number of picks.
+     * @param random The random source.
+     * @return The picked indices, in pick order.
+     */
+    private static int[] pickDistinctIndices(int size, int k, RandomSource random) {
+        int picks = Math.min(k, size);
+        int[] result = new int[picks];
+
+        // Sparse permutation: position swappedPositions[n] holds swappedValues[n]; unlisted positions hold themselves
+        int[] swappedPositions = new int[picks];
+        int[] swappedValues = new int[picks];
+        int swaps = 0;
+
+        for (int i = 0; i < picks; i++) {
+            int j = i + random.nextInt(size - i);
+            int valueAtI = i;
+            int valueAtJ = j;
+            int slotOfJ = -1;
+
+            for (int n = 0; n < swaps; n++) {
+                if (swappedPositions[n] == i) {
+                    valueAtI = swappedValues[n];
+                }
+                if (swappedPositions[n] == j) {
+                    valueAtJ = swappedValues[n];
+                    slotOfJ = n;
+                }
+            }
+
+            result[i] = valueAtJ;
+
+            // Position i is never read again, so only position j needs to remember the swap
+            if (slotOfJ < 0) {
+                slotOfJ = swaps++;
+                swappedPositions[slotOfJ] = j;
+            }
+            swappedValues[slotOfJ] = valueAtI;
+        }
+        return result;
+    }
+
     /**
      * Checks if a given tome stack is empty or unenchanted.
      * <p>
@@ -0,0 +1,56 @@
+package johnsmith.enchantingoverhauled.lib;
+
+import johnsmith.enchantingoverhauled.api.enchantment.EnchantmentSource;
+
+import java.util.Arrays;
+
+/**
+ * The three enchantment options offered by an enchanting table, as computed from a single
+ * snapshot of the menu's slots, its seed and the table's {@link TableSurvey}.
+ * <p>
+ * Options are computed into this detached form first and only then copied into the menu's
+ * synced fields, so the computation can run off the server thread and be committed later,
+ * and so the client can hold a preview next to the options last received from the server.
+ *
+ * @param costs       The level requirement of each option.
+ * @param enchantClue The enchantment registry id of each option.
+ * @param levelClue   The enchantment level of each option.
+ * @param sources     The {@link EnchantmentSource} id of each option.
+ */
+public record EnchantmentOptions(
+        int[] costs,
+        int[] enchantClue,
+        int[] levelClue,
+        int[] sources
+) {
+    /**
+     * Creates a set of options where no slot holds an enchantment.
+     *
+     * @param size The number of option slots.
+     * @return The empty options, with mutable arrays ready to be filled.
+     */
+    public static EnchantmentOptions empty(int size) {
+        int[] costs = new int[size];
+        int[] enchantClue = new int[size];
+        int[] levelClue = new int[size];
+        int[] sources = new int[size];
+
+        Arrays.fill(enchantClue, EnchantmentSource.NONE.getId());
+        Arrays.fill(levelClue, EnchantmentSource.NONE.getId());
+        Arrays.fill(sources, EnchantmentSource.NONE.getId());
+        return new EnchantmentOptions(costs, enchantClue, levelClue, sources);
+    }
+
+    /**
+     * Checks whether two sets of options offer the same enchantments at the same costs.
+     *
+     * @param other The options to compare with.
+     * @return True if all arrays hold equal values.
+     */
+    public boolean matches(EnchantmentOptions other) {
+        return Arrays.equals(this.costs, other.costs)
+                && Arrays.equals(this.enchantClue, other.enchantClue)
+                && Arrays.equals(this.levelClue, other.levelClue)
+                && Arrays.equals(this.sources, other.sources);
+    }
+}
@@ -0,0 +1,186 @@
+package johnsmith.enchantingoverhauled.lib;
+
+import net.minecraft.core.Holder;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+import net.minecraft.world.item.enchantment.Enchantment;
+
+/**
+ * A working copy of the enchanting slots that one or more enchantment options are applied to.
+ * <p>
+ * Options only ever modify the copy and the costs recorded here, so a click (or a batch of clicks)
+ * that turns out to be invalid halfway through leaves the menu untouched. Once every option has been
+ * applied, the menu writes the copy back and charges the player in a single step.
+ */
+public final class EnchantmentTransaction {
+
+    /**
+     * The result of applying a single option to a transaction.
+     */
+    public enum Outcome {
+        /**
+         * The option does not belong to the handler that was asked; another handler should try.
+         */
+        PASS,
+        /**
+         * The option belongs to the handler but cannot be applied (e.g. unaffordable or maxed out).
+         */
+        REJECTED,
+        /**
+         * The option was applied to the transaction.
+         */
+        APPLIED
+    }
+
+    private final boolean chargesCosts;
+    private ItemStack target;
+    private final ItemStack lapis;
+    private ItemStack source;
+    private int levelsLeft;
+    private int experienceCost;
+    private int criterionLevels;
+    private boolean sourceConsumed;
+    private boolean performed;
+
+    /**
+     * Creates a transaction over copies of the given slot contents.
+     *
+     * @param target The target slot's stack.
+     * @param lapis  The lapis slot's stack.
+     * @param source The source slot's stack.
+     * @param player The enchanting player, whose levels and game mode determine what is affordable.
+     */
+    public EnchantmentTransaction(ItemStack target, ItemStack lapis, ItemStack source, Player player) {
+        this.chargesCosts = !player.getAbilities().instabuild;
+        this.target = target.copy();
+        this.lapis = lapis.copy();
+        this.source = source.copy();
+        this.levelsLeft = player.experienceLevel;
+    }
+
+    /**
+     * Checks whether the player can still afford an option after everything applied so far.
+     * Players in creative mode can afford every option.
+     *
+     * @param lapisCost     The lapis the option requires.
+     * @param requiredLevel The experience level the option requires.
+     * @return True if the option is affordable.
+     */
+    public boolean canAfford(int lapisCost, int requiredLevel) {
+        return !this.chargesCosts || (this.lapis.getCount() >= lapisCost && this.levelsLeft >= requiredLevel);
+    }
+
+    /**
+     * Records the costs of an applied option. Nothing is charged in creative mode.
+     *
+     * @param lapisCost       The lapis to consume.
+     * @param levelCost       The experience levels to consume.
+     * @param criterionLevels The levels reported to the {@code enchanted_item} criterion.
+     */
+    public void charge(int lapisCost, int levelCost, int criterionLevels) {
+        this.criterionLevels += criterionLevels;
+        if (this.chargesCosts) {
+            this.performed = true;
+            this.lapis.shrink(lapisCost);
+            this.levelsLeft -= levelCost;
+            this.experienceCost += levelCost;
+        }
+    }
+
+    /**
+     * Requests that the player is notified of the enchantment even when nothing was charged
+     * (upgrades reroll the enchantment seed in creative mode as well).
+     */
+    public void markPerformed() {
+        this.performed = true;
+    }
+
+    /**
+     * Checks whether {@link Player#onEnchantmentPerformed} must be called when the transaction is committed:
+     * either a cost was charged or an option requested it through {@link #markPerformed}.
+     *
+     * @return True if the player must be notified.
+     */
+    public boolean isPerformed() {
+        return this.performed;
+    }
+
+    /**
+     * Adds an enchantment to the target, turning a plain book into an enchanted book first.
+     *
+     * @param enchantment The enchantment to add.
+     * @param level       The level to add it at.
+     */
+    public void enchant(Holder<Enchantment> enchantment, int level) {
+        if (this.target.is(Items.BOOK)) {
+            this.target = new ItemStack(Items.ENCHANTED_BOOK);
+        }
+        this.target.enchant(enchantment, level);
+    }
+
+    /**
+     * Replaces the source item with a plain book after an enchantment was taken from it.
+     * Nothing is consumed in creative mode.
+     */
+    public void consumeSource() {
+        if (this.chargesCosts) {
+            this.source = new ItemStack(Items.BOOK);
+            this.sourceConsumed = true;
+        }
+    }
+
+    /**
+     * Checks whether the source item has already been used up by an earlier option.
+     *
+     * @return True if the source was consumed.
+     */
+    public boolean isSourceConsumed() {
+        return this.sourceConsumed;
+    }
+
+    /**
+     * Gets the working copy of the target.
+     *
+     * @return The target stack, modified in place by the options.
+     */
+    public ItemStack getTarget() {
+        return this.target;
+    }
+
+    /**
+     * Gets the lapis left after all applied options.
+     *
+     * @return The lapis stack, or {@link ItemStack#EMPTY} if all of it was consumed.
+     */
+    public ItemStack getLapis() {
+        return this.lapis.isEmpty() ? ItemStack.EMPTY : this.lapis;
+    }
+
+    /**
+     * Gets the working copy of the source item.
+     *
+     * @return The source stack.
+     */
+    public ItemStack getSource() {
+        return this.source;
+    }
+
+    /**
+     * Gets the experience levels to charge for all applied options.
+     *
+     * @return The level cost (0 in creative mode).
+     */
+    public int getExperienceCost() {
+        return this.experienceCost;
+    }
+
+    /**
+     * Gets the levels to report to the {@code enchanted_item} criterion for all applied options.
+     *
+     * @return The summed criterion levels.
+     */
+    public int getCriterionLevels() {
+        return this.criterionLevels;
+    }
+}
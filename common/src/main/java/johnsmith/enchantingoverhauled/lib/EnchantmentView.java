@@ -0,0 +1,181 @@
+package johnsmith.enchantingoverhauled.lib;
+
+import johnsmith.enchantingoverhauled.accessor.EnchantmentViewAccessor;
+import johnsmith.enchantingoverhauled.lib.cache.EnchantmentIndex;
+
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+
+import net.minecraft.core.Holder;
+import net.minecraft.world.item.enchantment.Enchantment;
+import net.minecraft.world.item.enchantment.EnchantmentInstance;
+import net.minecraft.world.item.enchantment.ItemEnchantments;
+
+/**
+ * A read-only, indexed view of the enchantments of one {@link ItemEnchantments} component.
+ * <p>
+ * The entries are copied once into parallel arrays, in the component's own iteration order,
+ * so positions stay stable for the lifetime of the component. Since components are immutable,
+ * the view is memoized on the component instance (see {@link EnchantmentViewAccessor}) and
+ * repeated indexed access by the menu and screen does not allocate.
+ * <p>
+ * The curse-free subset of a view (see {@link #withoutCurses}) is memoized the same way, so the
+ * menu pipeline can skip curses without copying the item stack and rebuilding its component.
+ */
+public final class EnchantmentView {
+
+    /**
+     * The view of a component without enchantments.
+     */
+    public static final EnchantmentView EMPTY = new EnchantmentView(new Holder[0], new int[0], null);
+
+    private final Holder<Enchantment>[] holders;
+    private final int[] levels;
+
+    /**
+     * The index this view was filtered with if it is the curse-free subset of another view, otherwise {@code null}.
+     */
+    private final EnchantmentIndex curseFreeFor;
+
+    /**
+     * The memoized curse-free subset of this view. Only valid while its {@link #curseFreeFor} is the current index.
+     */
+    private EnchantmentView curseFree;
+
+    private EnchantmentView(Holder<Enchantment>[] holders, int[] levels, EnchantmentIndex curseFreeFor) {
+        this.holders = holders;
+        this.levels = levels;
+        this.curseFreeFor = curseFreeFor;
+    }
+
+    /**
+     * Gets the view of a component, creating it on first use.
+     *
+     * @param enchantments The component, may be {@code null}.
+     * @return The shared view of the component.
+     */
+    public static EnchantmentView of(ItemEnchantments enchantments) {
+        if (enchantments == null || enchantments.isEmpty()) {
+            return EMPTY;
+        }
+        return ((EnchantmentViewAccessor) enchantments).enchanting_overhauled$getView();
+    }
+
+    /**
+     * Builds a new view from the entries of a component. Use {@link #of} to get the memoized view.
+     *
+     * @param entries The entry set of the component.
+     * @return The new view.
+     */
+    @SuppressWarnings("unchecked")
+    public static EnchantmentView build(Object2IntMap<Holder<Enchantment>> entries) {
+        if (entries.isEmpty()) {
+            return EMPTY;
+        }
+
+        Holder<Enchantment>[] holders = new Holder[entries.size()];
+        int[] levels = new int[entries.size()];
+        int i = 0;
+        for (Object2IntMap.Entry<Holder<Enchantment>> entry : entries.object2IntEntrySet()) {
+            holders[i] = entry.getKey();
+            levels[i] = entry.getIntValue();
+            i++;
+        }
+        return new EnchantmentView(holders, levels, null);
+    }
+
+    /**
+     * Gets the subset of this view without curses, keeping the order of the remaining entries.
+     * <p>
+     * The subset is computed once per index (i.e. once per reload) from the index's curse bit set.
+     * If the view holds no curses, the subset shares this view's arrays.
+     *
+     * @param index The enchantment index of the current registry access.
+     * @return The curse-free view; this view itself if it is empty or already curse-free.
+     */
+    @SuppressWarnings("unchecked")
+    public EnchantmentView withoutCurses(EnchantmentIndex index) {
+        if (this.isEmpty() || this.curseFreeFor == index) {
+            return this;
+        }
+
+        EnchantmentView cached = this.curseFree;
+        if (cached != null && cached.curseFreeFor == index) {
+            return cached;
+        }
+
+        int kept = 0;
+        for (Holder<Enchantment> holder : this.holders) {
+            if (!index.isCurse(holder)) {
+                kept++;
+            }
+        }
+
+        EnchantmentView filtered;
+        if (kept == this.holders.length) {
+            filtered = new EnchantmentView(this.holders, this.levels, index);
+        } else {
+            Holder<Enchantment>[] holders = new Holder[kept];
+            int[] levels = new int[kept];
+            int j = 0;
+            for (int i = 0; i < this.holders.length; i++) {
+                if (!index.isCurse(this.holders[i])) {
+                    holders[j] = this.holders[i];
+                    levels[j] = this.levels[i];
+                    j++;
+                }
+            }
+            filtered = new EnchantmentView(holders, levels, index);
+        }
+
+        this.curseFree = filtered;
+        return filtered;
+    }
+
+    /**
+     * Gets the number of enchantments in the view.
+     *
+     * @return The number of enchantments.
+     */
+    public int size() {
+        return this.holders.length;
+    }
+
+    /**
+     * Checks whether the view holds no enchantments.
+     *
+     * @return True if there are no enchantments.
+     */
+    public boolean isEmpty() {
+        return this.holders.length == 0;
+    }
+
+    /**
+     * Gets the enchantment at a position.
+     *
+     * @param index The position, from 0 (inclusive) to {@link #size()} (exclusive).
+     * @return The enchantment at the position.
+     */
+    public Holder<Enchantment> holderAt(int index) {
+        return this.holders[index];
+    }
+
+    /**
+     * Gets the level of the enchantment at a position.
+     *
+     * @param index The position, from 0 (inclusive) to {@link #size()} (exclusive).
+     * @return The level of the enchantment at the position.
+     */
+    public int levelAt(int index) {
+        return this.levels[index];
+    }
+
+    /**
+     * Creates an {@link EnchantmentInstance} for the entry at a position.
+     *
+     * @param index The position, from 0 (inclusive) to {@link #size()} (exclusive).
+     * @return A new instance holding the enchantment and its level.
+     */
+    public EnchantmentInstance instanceAt(int index) {
+        return new EnchantmentInstance(this.holders[index], this.levels[index]);
+    }
+}
@@ -0,0 +1,61 @@
+package johnsmith.enchantingoverhauled.lib;
+
+import net.minecraft.world.item.ItemStack;
+
+/**
+ * A cheap description of every input that determines the options of an enchanting menu.
+ * <p>
+ * Two fingerprints match if the target and source stacks hold the same item, components and count,
+ * the enchantment seed is equal, and the table survey is the very same instance. Surveys are
+ * immutable and cached until a nearby block changes (see {@code TableSurveyCache}), so their
+ * identity doubles as a version of the table's surroundings.
+ * <p>
+ * The lapis slot is deliberately not part of the fingerprint, as it never influences the options.
+ */
+public final class OptionFingerprint {
+
+    private final ItemStack target;
+    private final ItemStack source;
+    private final int seed;
+    private final TableSurvey survey;
+
+    private OptionFingerprint(ItemStack target, ItemStack source, int seed, TableSurvey survey) {
+        this.target = target;
+        this.source = source;
+        this.seed = seed;
+        this.survey = survey;
+    }
+
+    /**
+     * Captures the inputs of an option computation.
+     *
+     * @param target The item being enchanted (copied).
+     * @param source The item in the source slot (copied).
+     * @param seed   The enchantment seed.
+     * @param survey The table survey the options are based on.
+     * @return The fingerprint.
+     */
+    public static OptionFingerprint of(ItemStack target, ItemStack source, int seed, TableSurvey survey) {
+        return new OptionFingerprint(target.copy(), source.copy(), seed, survey);
+    }
+
+    /**
+     * Checks whether an option computation with the given inputs would produce the same result.
+     *
+     * @param target The item being enchanted.
+     * @param source The item in the source slot.
+     * @param seed   The enchantment seed.
+     * @param survey The table survey.
+     * @return True if all inputs are unchanged.
+     */
+    public boolean matches(ItemStack target, ItemStack source, int seed, TableSurvey survey) {
+        return this.seed == seed
+                && this.survey == survey
+                && matches(this.target, target)
+                && matches(this.source, source);
+    }
+
+    private static boolean matches(ItemStack previous, ItemStack current) {
+        return previous.getCount() == current.getCount() && ItemStack.isSameItemSameComponents(previous, current);
+    }
+}
@@ -0,0 +1,161 @@
+package johnsmith.enchantingoverhauled.lib;
+
+import johnsmith.enchantingoverhauled.api.enchantment.theme.EnchantmentTheme;
+import johnsmith.enchantingoverhauled.api.enchantment.theme.effect.EffectData;
+import johnsmith.enchantingoverhauled.lib.cache.ThemePowerIndex;
+import johnsmith.enchantingoverhauled.platform.Services;
+
+import it.unimi.dsi.fastutil.objects.Reference2IntMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Registry;
+import net.minecraft.tags.BlockTags;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.EnchantingTableBlock;
+import net.minecraft.world.level.block.state.BlockState;
+
+import java.util.List;
+
+/**
+ * An immutable snapshot of the display effects of an enchanting table: which providers emit
+ * vanilla glyphs, which theme dominates the table, and which providers emit that theme's effects.
+ * <p>
+ * Like {@link TableSurvey}, the neighborhood is read exactly once per snapshot, so the client's
+ * per-frame display tick only walks the precomputed provider masks instead of re-evaluating
+ * every provider of every theme.
+ */
+public final class TableEffects {
+
+    /**
+     * The effects of a table without any power providers.
+     */
+    public static final TableEffects EMPTY = new TableEffects(0L, null, 0L);
+
+    /**
+     * Bit {@code i} is set if the provider at {@code BOOKSHELF_OFFSETS.get(i)} grants power to any theme
+     * and its transmitter is valid.
+     */
+    private final long glyphMask;
+
+    /**
+     * The effects of the dominant theme, or {@code null} if no theme with effects surrounds the table.
+     */
+    private final EffectData dominantEffects;
+
+    /**
+     * Bit {@code i} is set if the provider at {@code BOOKSHELF_OFFSETS.get(i)} grants power to the
+     * dominant theme and its transmitter is valid.
+     */
+    private final long themedMask;
+
+    private TableEffects(long glyphMask, EffectData dominantEffects, long themedMask) {
+        this.glyphMask = glyphMask;
+        this.dominantEffects = dominantEffects;
+        this.themedMask = themedMask;
+    }
+
+    /**
+     * Computes the display effects of an enchanting table in a single read of its neighborhood.
+     * <p>
+     * The dominant theme is the theme with effects whose providers list the most base power around
+     * the table; ties go to the theme that comes first in registry order.
+     *
+     * @param level    The level containing the table.
+     * @param tablePos The position of the enchanting table.
+     * @return The immutable snapshot.
+     */
+    public static TableEffects scan(Level level, BlockPos tablePos) {
+        ThemePowerIndex index = ThemePowerIndex.get(level.registryAccess());
+        List<BlockPos> offsets = EnchantingTableBlock.BOOKSHELF_OFFSETS;
+
+        long glyphMask = 0L;
+        Reference2IntOpenHashMap<EnchantmentTheme> themePower = new Reference2IntOpenHashMap<>();
+        BlockState[] neighborhood = TableNeighborhood.read(level, tablePos);
+        BlockPos.MutableBlockPos providerPos = new BlockPos.MutableBlockPos();
+
+        for (int i = 0; i < offsets.size(); i++) {
+            if (!TableNeighborhood.getTransmitter(neighborhood, i).is(BlockTags.ENCHANTMENT_POWER_TRANSMITTER)) {
+                continue;
+            }
+
+            BlockState providerState = TableNeighborhood.getProvider(neighborhood, i);
+            ThemePowerIndex.Entry[] entries = index.getEntries(providerState.getBlock());
+            if (entries.length == 0) {
+                continue;
+            }
+
+            providerPos.setWithOffset(tablePos, offsets.get(i));
+            for (ThemePowerIndex.Entry entry : entries) {
+                if (entry.getPower(level, providerPos, providerState) > 0) {
+                    glyphMask |= 1L << i;
+                }
+                // Only consider themes that actually have effects to play
+                if (entry.theme().effects().isPresent()) {
+                    themePower.addTo(entry.theme(), entry.provider().power());
+                }
+            }
+        }
+
+        Registry<EnchantmentTheme> registry = Services.PLATFORM.getThemeRegistry(level.registryAccess()).orElse(null);
+        EnchantmentTheme dominant = null;
+        int dominantPower = Integer.MIN_VALUE;
+        for (Reference2IntMap.Entry<EnchantmentTheme> entry : themePower.reference2IntEntrySet()) {
+            EnchantmentTheme theme = entry.getKey();
+            int power = entry.getIntValue();
+            boolean winsTie = power == dominantPower
+                    && registry != null
+                    && registry.getId(theme) < registry.getId(dominant);
+            if (power > dominantPower || winsTie) {
+                dominant = theme;
+                dominantPower = power;
+            }
+        }
+
+        if (dominant == null) {
+            return glyphMask == 0L ? EMPTY : new TableEffects(glyphMask, null, 0L);
+        }
+
+        long themedMask = 0L;
+        for (int i = 0; i < offsets.size(); i++) {
+            if (!TableNeighborhood.getTransmitter(neighborhood, i).is(BlockTags.ENCHANTMENT_POWER_TRANSMITTER)) {
+                continue;
+            }
+
+            BlockState providerState = TableNeighborhood.getProvider(neighborhood, i);
+            ThemePowerIndex.Entry entry = index.getEntry(providerState.getBlock(), dominant);
+            if (entry != null && entry.getPower(level, providerPos.setWithOffset(tablePos, offsets.get(i)), providerState) > 0) {
+                themedMask |= 1L << i;
+            }
+        }
+        return new TableEffects(glyphMask, dominant.effects().get(), themedMask);
+    }
+
+    /**
+     * Gets the providers that emit vanilla glyphs, indexed like {@link EnchantingTableBlock#BOOKSHELF_OFFSETS}.
+     *
+     * @return The glyph bitmask.
+     */
+    public long getGlyphMask() {
+        return this.glyphMask;
+    }
+
+    /**
+     * Gets the effects of the dominant theme.
+     *
+     * @return The effects, or {@code null} if no theme with effects surrounds the table.
+     */
+    public EffectData getDominantEffects() {
+        return this.dominantEffects;
+    }
+
+    /**
+     * Gets the providers that emit the dominant theme's effects,
+     * indexed like {@link EnchantingTableBlock#BOOKSHELF_OFFSETS}.
+     *
+     * @return The themed bitmask.
+     */
+    public long getThemedMask() {
+        return this.themedMask;
+    }
+}
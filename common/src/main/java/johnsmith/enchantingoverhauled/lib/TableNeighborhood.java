@@ -0,0 +1,194 @@
+package johnsmith.enchantingoverhauled.lib;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.EnchantingTableBlock;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.ChunkAccess;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+
+import java.util.List;
+
+/**
+ * Batched reader for the 5x2x5 block region around an enchanting table.
+ * <p>
+ * Instead of one {@link Level#getBlockState} call (and thus one chunk and section lookup) per
+ * transmitter and provider, the whole region is copied out of the {@link LevelChunkSection}
+ * palettes in a single pass. The region may straddle up to four chunk columns and two
+ * sections; each chunk is resolved once and each section once per layer.
+ * <p>
+ * The result is a flat {@code BlockState[]} of {@link #SIZE} entries. Use {@link #getProvider}
+ * and {@link #getTransmitter} to look up the states belonging to an entry of
+ * {@link EnchantingTableBlock#BOOKSHELF_OFFSETS}.
+ */
+public final class TableNeighborhood {
+
+    /**
+     * The horizontal distance from the table to the outermost providers.
+     */
+    private static final int RADIUS = 2;
+
+    /**
+     * The width and depth of the region.
+     */
+    private static final int WIDTH = RADIUS * 2 + 1;
+
+    /**
+     * The number of layers in the region (the table's layer and the one above).
+     */
+    private static final int HEIGHT = 2;
+
+    /**
+     * The number of block states in a neighborhood array.
+     */
+    public static final int SIZE = WIDTH * HEIGHT * WIDTH;
+
+    /**
+     * Array slot of each provider, indexed like {@link EnchantingTableBlock#BOOKSHELF_OFFSETS}.
+     */
+    private static final int[] PROVIDER_SLOTS;
+
+    /**
+     * Array slot of each transmitter, indexed like {@link EnchantingTableBlock#BOOKSHELF_OFFSETS}.
+     */
+    private static final int[] TRANSMITTER_SLOTS;
+
+    static {
+        List<BlockPos> offsets = EnchantingTableBlock.BOOKSHELF_OFFSETS;
+        PROVIDER_SLOTS = new int[offsets.size()];
+        TRANSMITTER_SLOTS = new int[offsets.size()];
+
+        for (int i = 0; i < offsets.size(); i++) {
+            BlockPos offset = offsets.get(i);
+            PROVIDER_SLOTS[i] = slot(offset.getX(), offset.getY(), offset.getZ());
+            TRANSMITTER_SLOTS[i] = slot(offset.getX() / 2, offset.getY(), offset.getZ() / 2);
+        }
+    }
+
+    private TableNeighborhood() {}
+
+    /**
+     * Reads the neighborhood of an enchanting table.
+     *
+     * @param level    The level containing the table.
+     * @param tablePos The position of the enchanting table.
+     * @return A new array of {@link #SIZE} block states.
+     */
+    public static BlockState[] read(Level level, BlockPos tablePos) {
+        BlockState[] states = new BlockState[SIZE];
+
+        // The debug world synthesizes its states instead of storing them in sections
+        if (level.isDebug()) {
+            for (int dy = 0; dy < HEIGHT; dy++) {
+                for (int dx = -RADIUS; dx <= RADIUS; dx++) {
+                    for (int dz = -RADIUS; dz <= RADIUS; dz++) {
+                        states[slot(dx, dy, dz)] = level.getBlockState(tablePos.offset(dx, dy, dz));
+                    }
+                }
+            }
+            return states;
+        }
+
+        int minX = tablePos.getX() - RADIUS;
+        int minY = tablePos.getY();
+        int minZ = tablePos.getZ() - RADIUS;
+        int maxX = minX + WIDTH;
+        int maxZ = minZ + WIDTH;
+
+        for (int startX = minX; startX < maxX; ) {
+            int chunkX = SectionPos.blockToSectionCoord(startX);
+            int endX = Math.min(maxX, SectionPos.sectionToBlockCoord(chunkX + 1));
+
+            for (int startZ = minZ; startZ < maxZ; ) {
+                int chunkZ = SectionPos.blockToSectionCoord(startZ);
+                int endZ = Math.min(maxZ, SectionPos.sectionToBlockCoord(chunkZ + 1));
+                ChunkAccess chunk = level.getChunk(chunkX, chunkZ);
+
+                for (int dy = 0; dy < HEIGHT; dy++) {
+                    int y = minY + dy;
+
+                    if (level.isOutsideBuildHeight(y)) {
+                        fill(states, Blocks.VOID_AIR.defaultBlockState(), dy, startX - minX, endX - minX, startZ - minZ, endZ - minZ);
+                        continue;
+                    }
+
+                    LevelChunkSection section = chunk.getSection(chunk.getSectionIndex(y));
+                    int localY = SectionPos.sectionRelative(y);
+
+                    for (int x = startX; x < endX; x++) {
+                        int localX = SectionPos.sectionRelative(x);
+                        for (int z = startZ; z < endZ; z++) {
+                            states[slot(x - minX - RADIUS, dy, z - minZ - RADIUS)] =
+                                    section.getBlockState(localX, localY, SectionPos.sectionRelative(z));
+                        }
+                    }
+                }
+                startZ = endZ;
+            }
+            startX = endX;
+        }
+        return states;
+    }
+
+    /**
+     * Checks whether every chunk that {@link #read} touches for a table is loaded.
+     * <p>
+     * On the client, chunks that have not arrived yet read as air, so a neighborhood read while this
+     * returns false must not be cached: nothing invalidates it once the missing chunk arrives.
+     *
+     * @param level    The level containing the table.
+     * @param tablePos The position of the enchanting table.
+     * @return True if all chunks of the neighborhood are loaded.
+     */
+    public static boolean isLoaded(Level level, BlockPos tablePos) {
+        int minChunkX = SectionPos.blockToSectionCoord(tablePos.getX() - RADIUS);
+        int maxChunkX = SectionPos.blockToSectionCoord(tablePos.getX() + RADIUS);
+        int minChunkZ = SectionPos.blockToSectionCoord(tablePos.getZ() - RADIUS);
+        int maxChunkZ = SectionPos.blockToSectionCoord(tablePos.getZ() + RADIUS);
+
+        for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+            for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                if (!level.hasChunk(chunkX, chunkZ)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets the provider state for an entry of {@link EnchantingTableBlock#BOOKSHELF_OFFSETS}.
+     *
+     * @param states      A neighborhood array returned by {@link #read}.
+     * @param offsetIndex The index of the provider offset.
+     * @return The provider's block state.
+     */
+    public static BlockState getProvider(BlockState[] states, int offsetIndex) {
+        return states[PROVIDER_SLOTS[offsetIndex]];
+    }
+
+    /**
+     * Gets the transmitter state for an entry of {@link EnchantingTableBlock#BOOKSHELF_OFFSETS}.
+     *
+     * @param states      A neighborhood array returned by {@link #read}.
+     * @param offsetIndex The index of the provider offset.
+     * @return The state of the block between the provider and the table.
+     */
+    public static BlockState getTransmitter(BlockState[] states, int offsetIndex) {
+        return states[TRANSMITTER_SLOTS[offsetIndex]];
+    }
+
+    private static int slot(int dx, int dy, int dz) {
+        return (dy * WIDTH + (dz + RADIUS)) * WIDTH + (dx + RADIUS);
+    }
+
+    private static void fill(BlockState[] states, BlockState state, int dy, int fromX, int toX, int fromZ, int toZ) {
+        for (int x = fromX; x < toX; x++) {
+            for (int z = fromZ; z < toZ; z++) {
+                states[slot(x - RADIUS, dy, z - RADIUS)] = state;
+            }
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package johnsmith.enchantingoverhauled.lib;
+
+import johnsmith.enchantingoverhauled.api.enchantment.theme.EnchantmentTheme;
+import johnsmith.enchantingoverhauled.api.enchantment.theme.registry.EnchantmentThemeRegistry;
+import johnsmith.enchantingoverhauled.lib.cache.ThemePowerIndex;
+
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntMaps;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.tags.BlockTags;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.EnchantingTableBlock;
+import net.minecraft.world.level.block.state.BlockState;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * An immutable snapshot of the power providers surrounding an enchanting table.
+ * <p>
+ * The neighborhood is read exactly once per survey (see {@link TableNeighborhood}): for every entry of
+ * {@link EnchantingTableBlock#BOOKSHELF_OFFSETS} the transmitter and the provider block are
+ * inspected and their contribution is recorded. All later queries made while generating
+ * enchantment options (total power, per-theme power, whether a theme is active) are answered
+ * from the snapshot instead of re-reading the level.
+ */
+public final class TableSurvey {
+
+    /**
+     * A survey of a table without any power providers.
+     */
+    public static final TableSurvey EMPTY = new TableSurvey(0, 0L, Object2IntMaps.emptyMap());
+
+    /**
+     * The total agnostic power (the highest power per provider, summed over all providers).
+     */
+    private final int power;
+
+    /**
+     * Bit {@code i} is set if the transmitter in front of {@code BOOKSHELF_OFFSETS.get(i)} is valid.
+     */
+    private final long transmitterMask;
+
+    /**
+     * The summed power per theme. A theme is present in this map if at least one block
+     * behind a valid transmitter is listed by one of its providers.
+     */
+    private final Object2IntMap<ResourceKey<EnchantmentTheme>> themePower;
+
+    /**
+     * The keys of {@link #themePower} without the default theme.
+     */
+    private final Set<ResourceKey<EnchantmentTheme>> activeThemes;
+
+    private TableSurvey(int power, long transmitterMask, Object2IntMap<ResourceKey<EnchantmentTheme>> themePower) {
+        this.power = power;
+        this.transmitterMask = transmitterMask;
+        this.themePower = themePower;
+
+        Set<ResourceKey<EnchantmentTheme>> activeThemes = new HashSet<>(themePower.keySet());
+        activeThemes.remove(EnchantmentThemeRegistry.DEFAULT);
+        this.activeThemes = Set.copyOf(activeThemes);
+    }
+
+    /**
+     * Surveys the neighborhood of an enchanting table in a single pass.
+     *
+     * @param level    The level containing the table.
+     * @param tablePos The position of the enchanting table.
+     * @return The immutable survey.
+     */
+    public static TableSurvey scan(Level level, BlockPos tablePos) {
+        ThemePowerIndex index = ThemePowerIndex.get(level.registryAccess());
+        List<BlockPos> offsets = EnchantingTableBlock.BOOKSHELF_OFFSETS;
+
+        int power = 0;
+        long transmitterMask = 0L;
+        Object2IntOpenHashMap<ResourceKey<EnchantmentTheme>> themePower = new Object2IntOpenHashMap<>();
+        BlockState[] neighborhood = TableNeighborhood.read(level, tablePos);
+        BlockPos.MutableBlockPos providerPos = new BlockPos.MutableBlockPos();
+
+        for (int i = 0; i < offsets.size(); i++) {
+            // Note: Logic matches custom requirement where air blocks must be tagged.
+            if (!TableNeighborhood.getTransmitter(neighborhood, i).is(BlockTags.ENCHANTMENT_POWER_TRANSMITTER)) {
+                continue;
+            }
+            transmitterMask |= 1L << i;
+
+            BlockState providerState = TableNeighborhood.getProvider(neighborhood, i);
+            ThemePowerIndex.Entry[] entries = index.getEntries(providerState.getBlock());
+            if (entries.length == 0) {
+                continue;
+            }
+
+            providerPos.setWithOffset(tablePos, offsets.get(i));
+            int maxPower = 0;
+
+            for (ThemePowerIndex.Entry entry : entries) {
+                int currentPower = entry.getPower(level, providerPos, providerState);
+                themePower.addTo(entry.themeKey(), currentPower);
+                if (currentPower > maxPower) {
+                    maxPower = currentPower;
+                }
+            }
+            power += maxPower;
+        }
+
+        if (transmitterMask == 0L) {
+            return EMPTY;
+        }
+        return new TableSurvey(power, transmitterMask, Object2IntMaps.unmodifiable(themePower));
+    }
+
+    /**
+     * Gets the total enchanting power available to the table, regardless of theme.
+     *
+     * @return The summed agnostic power.
+     */
+    public int getPower() {
+        return this.power;
+    }
+
+    /**
+     * Gets the enchanting power provided for a single theme.
+     *
+     * @param themeKey The theme to query.
+     * @return The summed power of that theme's providers, or 0 if the theme is not active.
+     */
+    public int getThemePower(ResourceKey<EnchantmentTheme> themeKey) {
+        return this.themePower.getInt(themeKey);
+    }
+
+    /**
+     * Checks whether any valid power provider of the given theme surrounds the table.
+     * The default theme is never considered active.
+     *
+     * @param themeKey The theme to query.
+     * @return True if the theme is active.
+     */
+    public boolean isThemeActive(ResourceKey<EnchantmentTheme> themeKey) {
+        return this.activeThemes.contains(themeKey);
+    }
+
+    /**
+     * Gets every theme with at least one valid power provider around the table.
+     * The default theme is never included, matching {@link #isThemeActive}.
+     *
+     * @return An immutable set of the active theme keys.
+     */
+    public Set<ResourceKey<EnchantmentTheme>> getActiveThemes() {
+        return this.activeThemes;
+    }
+
+    /**
+     * Checks whether the transmitter in front of a given provider offset is valid.
+     *
+     * @param offsetIndex The index into {@link EnchantingTableBlock#BOOKSHELF_OFFSETS}.
+     * @return True if power can pass from that provider to the table.
+     */
+    public boolean hasTransmitter(int offsetIndex) {
+        return (this.transmitterMask & (1L << offsetIndex)) != 0L;
+    }
+
+    /**
+     * Gets the raw transmitter bitmask, indexed like {@link EnchantingTableBlock#BOOKSHELF_OFFSETS}.
+     *
+     * @return The transmitter bitmask.
+     */
+    public long getTransmitterMask() {
+        return this.transmitterMask;
+    }
+}
@@ -0,0 +1,85 @@
+package johnsmith.enchantingoverhauled.lib;
+
+import net.minecraft.util.RandomSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+/**
+ * Top-k selection over the weighted skewed order of {@link EnchantmentLib#weightedSkewedShuffle}.
+ * <p>
+ * Like reservoir sampling with exponential keys (A-Res), every candidate is assigned a random key
+ * in a single streaming pass and only the k best keys are retained in a small bounded buffer,
+ * instead of wrapping and sorting the whole candidate list. The key is the one used by
+ * {@code weightedSkewedShuffle} ({@code weight / (1 - u)}, ties kept in encounter order, and
+ * non-positive weights ranked last), and one random number is drawn per positively weighted
+ * candidate in the same order. For the same random source state, the result therefore equals the
+ * first k entries of {@code weightedSkewedShuffle} that pass the filter.
+ * <p>
+ * Apart from the result list, the only allocations are two arrays of length k; nothing is
+ * allocated per candidate.
+ */
+public final class WeightedSampler {
+
+    private WeightedSampler() {}
+
+    /**
+     * Selects the first {@code k} entries of the weighted skewed order that pass a filter.
+     *
+     * @param candidates      The candidates, in their original order.
+     * @param k               The maximum number of entries to return.
+     * @param weightExtractor Extracts the weight of a candidate.
+     * @param filter          Candidates failing this test are skipped (they still consume a random draw).
+     * @param random          The random source.
+     * @return Up to {@code k} candidates, best key first.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> List<T> sampleTopK(
+            Iterable<T> candidates,
+            int k,
+            ToIntFunction<T> weightExtractor,
+            Predicate<T> filter,
+            RandomSource random
+    ) {
+        if (k <= 0) {
+            return new ArrayList<>(0);
+        }
+
+        // Sorted by key, descending; slot size - 1 holds the weakest retained entry
+        Object[] items = new Object[k];
+        double[] keys = new double[k];
+        int size = 0;
+
+        for (T item : candidates) {
+            int weight = weightExtractor.applyAsInt(item);
+            double key = weight <= 0
+                    ? Double.NEGATIVE_INFINITY
+                    : (double) weight / (1.0 - random.nextDouble());
+
+            if (!filter.test(item)) {
+                continue;
+            }
+            // Equal keys keep encounter order, so a tie never displaces a retained entry
+            if (size == k && !(key > keys[k - 1])) {
+                continue;
+            }
+
+            int pos = size < k ? size++ : k - 1;
+            while (pos > 0 && keys[pos - 1] < key) {
+                keys[pos] = keys[pos - 1];
+                items[pos] = items[pos - 1];
+                pos--;
+            }
+            keys[pos] = key;
+            items[pos] = item;
+        }
+
+        List<T> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add((T) items[i]);
+        }
+        return result;
+    }
+}
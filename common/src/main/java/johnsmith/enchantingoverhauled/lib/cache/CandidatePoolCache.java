@@ -0,0 +1,65 @@
+package johnsmith.enchantingoverhauled.lib.cache;
+
+import johnsmith.enchantingoverhauled.api.enchantment.theme.EnchantmentTheme;
+
+import it.unimi.dsi.fastutil.objects.Object2ObjectLinkedOpenHashMap;
+
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.enchantment.EnchantmentInstance;
+
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * A bounded, least-recently-used cache of enchanting table candidate pools.
+ * <p>
+ * The enchantments a table can offer depend only on the target item, the set of active themes
+ * and whether treasure enchantments are allowed, so the pool for each combination is computed
+ * once and then shared as an immutable list. Only the weighted shuffle remains per request.
+ * <p>
+ * Each {@link EnchantmentIndex} owns one instance, so pools are dropped together with the index
+ * whenever tags are reloaded. Access is synchronized, since options may be computed off-thread.
+ */
+public final class CandidatePoolCache {
+
+    /**
+     * The maximum number of pools kept before the least recently used one is evicted.
+     */
+    private static final int MAX_ENTRIES = 256;
+
+    /**
+     * The inputs that determine a candidate pool.
+     *
+     * @param item            The target item.
+     * @param activeThemes    The themes with at least one valid provider (excluding the default theme).
+     * @param treasureAllowed Whether treasure enchantments may be offered regardless of theme.
+     */
+    public record Key(
+            Item item,
+            Set<ResourceKey<EnchantmentTheme>> activeThemes,
+            boolean treasureAllowed
+    ) {}
+
+    private final Object2ObjectLinkedOpenHashMap<Key, List<EnchantmentInstance>> pools = new Object2ObjectLinkedOpenHashMap<>();
+
+    /**
+     * Gets the pool for the given inputs, computing it if necessary.
+     *
+     * @param key    The inputs of the pool.
+     * @param loader Computes the pool on a cache miss.
+     * @return The immutable candidate pool.
+     */
+    public synchronized List<EnchantmentInstance> get(Key key, Function<Key, List<EnchantmentInstance>> loader) {
+        List<EnchantmentInstance> pool = this.pools.getAndMoveToLast(key);
+        if (pool == null) {
+            pool = List.copyOf(loader.apply(key));
+            if (this.pools.size() >= MAX_ENTRIES) {
+                this.pools.removeFirst();
+            }
+            this.pools.put(key, pool);
+        }
+        return pool;
+    }
+}
@@ -0,0 +1,406 @@
+package johnsmith.enchantingoverhauled.lib.cache;
+
+import johnsmith.enchantingoverhauled.api.enchantment.theme.EnchantmentTheme;
+import johnsmith.enchantingoverhauled.api.enchantment.theme.registry.EnchantmentThemeRegistry;
+import johnsmith.enchantingoverhauled.api.enchantment.theme.roll.LevelRollCurve;
+import johnsmith.enchantingoverhauled.platform.Services;
+
+import it.unimi.dsi.fastutil.objects.Reference2ObjectMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+
+import net.minecraft.core.Holder;
+import net.minecraft.core.IdMap;
+import net.minecraft.core.Registry;
+import net.minecraft.core.RegistryAccess;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.tags.EnchantmentTags;
+import net.minecraft.tags.TagKey;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+import net.minecraft.world.item.enchantment.Enchantment;
+import net.minecraft.world.item.enchantment.EnchantmentInstance;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Immutable lookup tables derived from the enchantment registry and its tags, indexed by
+ * enchantment registry id.
+ * <p>
+ * Besides the theme of every enchantment, the index keeps bit sets over registry ids for
+ * {@link EnchantmentTags#IN_ENCHANTING_TABLE}, {@link EnchantmentTags#TREASURE}, {@link EnchantmentTags#CURSE}, each theme and
+ * (built lazily) each item's applicable enchantments, so table candidates are filtered with a
+ * few bitwise operations instead of per-enchantment tag lookups. A symmetric conflict matrix
+ * answers whether a candidate is compatible with a whole set of enchantments in one row test,
+ * and every enchantment is mapped to the {@link LevelRollTable} of its theme's level roll curve.
+ * <p>
+ * Built lazily once per {@link RegistryAccess} after tags are bound and rebuilt after every
+ * tag reload (see {@link ReloadableCache}). Because both logical sides keep their own registry
+ * access, the client and the server each get an index matching their own holders.
+ */
+public final class EnchantmentIndex {
+
+    private static final ReloadableCache<RegistryAccess, EnchantmentIndex> CACHE =
+            new ReloadableCache<>(EnchantmentIndex::build);
+
+    private static final BitSet EMPTY_BITS = new BitSet();
+
+    private final IdMap<Holder<Enchantment>> idMap;
+
+    /**
+     * Every enchantment holder, in registry order.
+     */
+    private final List<Holder<Enchantment>> holders;
+
+    /**
+     * The theme each enchantment belongs to, indexed by enchantment registry id.
+     * Enchantments without a theme tag map to {@link EnchantmentThemeRegistry#DEFAULT}.
+     */
+    private final ResourceKey<EnchantmentTheme>[] themeKeys;
+
+    /**
+     * The compiled level roll curve of each enchantment's theme, indexed by enchantment registry id.
+     */
+    private final LevelRollTable[] levelRolls;
+
+    /**
+     * Enchantments in {@link EnchantmentTags#IN_ENCHANTING_TABLE}, by registry id.
+     */
+    private final BitSet inEnchantingTable;
+
+    /**
+     * Enchantments in {@link EnchantmentTags#TREASURE}, by registry id.
+     */
+    private final BitSet treasure;
+
+    /**
+     * Enchantments in {@link EnchantmentTags#CURSE}, by registry id.
+     */
+    private final BitSet curses;
+
+    /**
+     * Enchantments of each theme, by registry id. The default theme holds every unthemed enchantment.
+     */
+    private final Map<ResourceKey<EnchantmentTheme>, BitSet> themeMembers;
+
+    /**
+     * Symmetric conflict matrix: bit {@code j} of row {@code i} is set if the enchantments with
+     * ids {@code i} and {@code j} are mutually exclusive. The diagonal is never set.
+     */
+    private final BitSet[] conflicts;
+
+    /**
+     * Enchantments that can be applied to each item, by registry id. Filled lazily.
+     */
+    private final Reference2ObjectMap<Item, BitSet> supportedByItem = new Reference2ObjectOpenHashMap<>();
+
+    /**
+     * Candidate pools of the enchanting table, built on demand from this index's registry.
+     */
+    private final CandidatePoolCache candidatePools = new CandidatePoolCache();
+
+    private EnchantmentIndex(
+            IdMap<Holder<Enchantment>> idMap,
+            List<Holder<Enchantment>> holders,
+            ResourceKey<EnchantmentTheme>[] themeKeys,
+            LevelRollTable[] levelRolls,
+            BitSet inEnchantingTable,
+            BitSet treasure,
+            BitSet curses,
+            Map<ResourceKey<EnchantmentTheme>, BitSet> themeMembers,
+            BitSet[] conflicts
+    ) {
+        this.idMap = idMap;
+        this.holders = holders;
+        this.themeKeys = themeKeys;
+        this.levelRolls = levelRolls;
+        this.inEnchantingTable = inEnchantingTable;
+        this.treasure = treasure;
+        this.curses = curses;
+        this.themeMembers = themeMembers;
+        this.conflicts = conflicts;
+    }
+
+    /**
+     * Gets the index for the enchantment registry contained in the given registry access.
+     *
+     * @param registryAccess The registry access of the current level.
+     * @return The compiled index.
+     */
+    public static EnchantmentIndex get(RegistryAccess registryAccess) {
+        return CACHE.get(registryAccess);
+    }
+
+    /**
+     * Gets the registry id of an enchantment.
+     *
+     * @param enchantment The enchantment holder.
+     * @return The registry id, or {@code -1} if the holder is not part of the indexed registry.
+     */
+    public int getId(Holder<Enchantment> enchantment) {
+        return this.idMap.getId(enchantment);
+    }
+
+    /**
+     * Gets the key of the theme the given enchantment belongs to.
+     *
+     * @param enchantment The enchantment holder.
+     * @return The theme key, or {@link EnchantmentThemeRegistry#DEFAULT} if the enchantment is not themed.
+     */
+    public ResourceKey<EnchantmentTheme> getThemeKey(Holder<Enchantment> enchantment) {
+        int id = this.idMap.getId(enchantment);
+        return id >= 0 && id < this.themeKeys.length ? this.themeKeys[id] : EnchantmentThemeRegistry.DEFAULT;
+    }
+
+    /**
+     * Gets the level roll table of the given enchantment, compiled from its theme's {@link EnchantmentTheme#levelRoll()}.
+     *
+     * @param enchantment The enchantment holder.
+     * @return The level roll table, or the table of {@link LevelRollCurve#DEFAULT} if the enchantment's theme
+     * does not define a curve.
+     */
+    public LevelRollTable getLevelRoll(Holder<Enchantment> enchantment) {
+        int id = this.idMap.getId(enchantment);
+        return id >= 0 && id < this.levelRolls.length ? this.levelRolls[id] : LevelRollTable.of(LevelRollCurve.DEFAULT);
+    }
+
+    /**
+     * Gets the enchantment holder with the given registry id.
+     *
+     * @param id The registry id.
+     * @return The holder, or {@code null} if the id is unknown.
+     */
+    public Holder<Enchantment> byId(int id) {
+        return this.idMap.byId(id);
+    }
+
+    /**
+     * Gets every enchantment of the registry, in registry order.
+     *
+     * @return An immutable random-access list, shared until the next reload.
+     */
+    public List<Holder<Enchantment>> getHolders() {
+        return this.holders;
+    }
+
+    /**
+     * Checks whether an enchantment is a curse.
+     *
+     * @param enchantment The enchantment holder.
+     * @return True if the enchantment is in {@link EnchantmentTags#CURSE}.
+     */
+    public boolean isCurse(Holder<Enchantment> enchantment) {
+        int id = this.idMap.getId(enchantment);
+        return id >= 0 ? this.curses.get(id) : enchantment.is(EnchantmentTags.CURSE);
+    }
+
+    /**
+     * Collects the registry ids of a set of enchantments.
+     *
+     * @param enchantments The enchantments.
+     * @return A new bit set of their registry ids. Unknown holders are skipped.
+     */
+    public BitSet toIdSet(Iterable<EnchantmentInstance> enchantments) {
+        BitSet ids = new BitSet(this.conflicts.length);
+        for (EnchantmentInstance instance : enchantments) {
+            int id = this.idMap.getId(instance.enchantment);
+            if (id >= 0) {
+                ids.set(id);
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Checks whether a candidate is mutually exclusive with any of a set of enchantments
+     * (the inverse of {@link Enchantment#areCompatible} over the whole set, ignoring the candidate itself).
+     *
+     * @param candidate The candidate enchantment.
+     * @param existing  The registry ids of the enchantments to check against (see {@link #toIdSet}).
+     * @return True if at least one enchantment in {@code existing} conflicts with the candidate.
+     */
+    public boolean conflictsWith(Holder<Enchantment> candidate, BitSet existing) {
+        int id = this.idMap.getId(candidate);
+        if (id >= 0) {
+            return this.conflicts[id].intersects(existing);
+        }
+
+        for (int other = existing.nextSetBit(0); other >= 0; other = existing.nextSetBit(other + 1)) {
+            if (!Enchantment.areCompatible(candidate, this.idMap.byId(other))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Computes the enchantments an enchanting table may offer for an item, as a set of registry ids.
+     * <p>
+     * This is the bitwise form of the following rules: enchantments of an active theme are always
+     * eligible; unthemed enchantments must be in {@link EnchantmentTags#IN_ENCHANTING_TABLE} and,
+     * unless {@code treasureAllowed}, not in {@link EnchantmentTags#TREASURE}; enchantments of an
+     * inactive theme are never eligible. Unless the target is a book, the result is further
+     * restricted to enchantments that can be applied to the target item.
+     *
+     * @param target          The item being enchanted.
+     * @param activeThemes    The active themes of the table (excluding the default theme).
+     * @param treasureAllowed Whether unthemed treasure enchantments are eligible.
+     * @return A new bit set of eligible registry ids.
+     */
+    public BitSet getCandidates(ItemStack target, Set<ResourceKey<EnchantmentTheme>> activeThemes, boolean treasureAllowed) {
+        BitSet candidates = (BitSet) this.themeMembers.getOrDefault(EnchantmentThemeRegistry.DEFAULT, EMPTY_BITS).clone();
+        candidates.and(this.inEnchantingTable);
+        if (!treasureAllowed) {
+            candidates.andNot(this.treasure);
+        }
+
+        for (ResourceKey<EnchantmentTheme> themeKey : activeThemes) {
+            BitSet members = this.themeMembers.get(themeKey);
+            if (members != null) {
+                candidates.or(members);
+            }
+        }
+
+        if (!target.is(Items.BOOK)) {
+            candidates.and(this.getSupported(target));
+        }
+        return candidates;
+    }
+
+    /**
+     * Gets the enchantments that can be applied to the target's item, computing them on first use.
+     *
+     * @param target A stack of the item.
+     * @return The registry ids of all applicable enchantments. Must not be modified.
+     */
+    private synchronized BitSet getSupported(ItemStack target) {
+        Item item = target.getItem();
+        BitSet supported = this.supportedByItem.get(item);
+        if (supported == null) {
+            supported = new BitSet(this.themeKeys.length);
+            for (int id = 0; id < this.themeKeys.length; id++) {
+                Holder<Enchantment> enchantment = this.idMap.byId(id);
+                if (enchantment != null && enchantment.value().canEnchant(target)) {
+                    supported.set(id);
+                }
+            }
+            this.supportedByItem.put(item, supported);
+        }
+        return supported;
+    }
+
+    /**
+     * Gets the candidate pool cache bound to this index. It is discarded together with the index
+     * when tags are reloaded.
+     *
+     * @return The candidate pool cache.
+     */
+    public CandidatePoolCache getCandidatePools() {
+        return this.candidatePools;
+    }
+
+    /**
+     * Compiles the index from the registries of a registry access. Expects tags to be bound.
+     */
+    @SuppressWarnings("unchecked")
+    private static EnchantmentIndex build(RegistryAccess registryAccess) {
+        Registry<Enchantment> registry = registryAccess.registryOrThrow(Registries.ENCHANTMENT);
+        IdMap<Holder<Enchantment>> idMap = registry.asHolderIdMap();
+
+        ResourceKey<EnchantmentTheme>[] themeKeys = new ResourceKey[registry.size()];
+        Optional<Registry<EnchantmentTheme>> themeRegistryOpt = Services.PLATFORM.getThemeRegistry(registryAccess);
+
+        // Walk themes in registry order; the first theme tag containing an enchantment wins
+        themeRegistryOpt.ifPresent(themeRegistry -> themeRegistry.holders().forEach(themeHolder -> {
+            ResourceLocation id = themeHolder.key().location();
+            // Construct the expected Tag: e.g., #enchanting_overhauled:theme/marine
+            TagKey<Enchantment> tag = TagKey.create(
+                    Registries.ENCHANTMENT,
+                    ResourceLocation.fromNamespaceAndPath(id.getNamespace(), "theme/" + id.getPath())
+            );
+
+            for (Holder<Enchantment> enchantment : registry.getTagOrEmpty(tag)) {
+                int enchantmentId = idMap.getId(enchantment);
+                if (enchantmentId >= 0 && themeKeys[enchantmentId] == null) {
+                    themeKeys[enchantmentId] = themeHolder.key();
+                }
+            }
+        }));
+
+        Map<ResourceKey<EnchantmentTheme>, BitSet> themeMembers = new HashMap<>();
+        LevelRollTable[] levelRolls = new LevelRollTable[themeKeys.length];
+        for (int i = 0; i < themeKeys.length; i++) {
+            if (themeKeys[i] == null) {
+                themeKeys[i] = EnchantmentThemeRegistry.DEFAULT;
+            }
+            themeMembers.computeIfAbsent(themeKeys[i], key -> new BitSet(themeKeys.length)).set(i);
+
+            ResourceKey<EnchantmentTheme> themeKey = themeKeys[i];
+            LevelRollCurve curve = themeRegistryOpt
+                    .flatMap(themeRegistry -> themeRegistry.getOptional(themeKey))
+                    .flatMap(EnchantmentTheme::levelRoll)
+                    .orElse(LevelRollCurve.DEFAULT);
+            levelRolls[i] = LevelRollTable.of(curve);
+        }
+
+        return new EnchantmentIndex(
+                idMap,
+                List.copyOf(registry.holders().toList()),
+                themeKeys,
+                levelRolls,
+                toBits(registry, idMap, EnchantmentTags.IN_ENCHANTING_TABLE),
+                toBits(registry, idMap, EnchantmentTags.TREASURE),
+                toBits(registry, idMap, EnchantmentTags.CURSE),
+                themeMembers,
+                buildConflicts(idMap, themeKeys.length)
+        );
+    }
+
+    /**
+     * Builds the conflict matrix from the exclusive sets of all enchantments. Exclusivity is
+     * symmetric (see {@link Enchantment#areCompatible}), so each entry is mirrored.
+     */
+    private static BitSet[] buildConflicts(IdMap<Holder<Enchantment>> idMap, int size) {
+        BitSet[] conflicts = new BitSet[size];
+        for (int i = 0; i < size; i++) {
+            conflicts[i] = new BitSet(size);
+        }
+
+        for (int i = 0; i < size; i++) {
+            Holder<Enchantment> enchantment = idMap.byId(i);
+            if (enchantment == null) {
+                continue;
+            }
+
+            for (Holder<Enchantment> exclusive : enchantment.value().exclusiveSet()) {
+                int j = idMap.getId(exclusive);
+                if (j >= 0 && j != i) {
+                    conflicts[i].set(j);
+                    conflicts[j].set(i);
+                }
+            }
+        }
+        return conflicts;
+    }
+
+    /**
+     * Collects the registry ids of all enchantments in a tag.
+     */
+    private static BitSet toBits(Registry<Enchantment> registry, IdMap<Holder<Enchantment>> idMap, TagKey<Enchantment> tag) {
+        BitSet bits = new BitSet(registry.size());
+        for (Holder<Enchantment> enchantment : registry.getTagOrEmpty(tag)) {
+            int id = idMap.getId(enchantment);
+            if (id >= 0) {
+                bits.set(id);
+            }
+        }
+        return bits;
+    }
+}
@@ -0,0 +1,112 @@
+package johnsmith.enchantingoverhauled.lib.cache;
+
+import johnsmith.enchantingoverhauled.api.enchantment.theme.roll.LevelRollCurve;
+
+import net.minecraft.util.RandomSource;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@link LevelRollCurve} compiled into cumulative distribution tables, one per enchantability.
+ * <p>
+ * Rolling a level raises it one step at a time with a fixed step chance {@code p} until a step fails,
+ * so the number of extra levels follows a geometric distribution truncated at the enchantment's max level:
+ * {@code P(extra <= x) = 1 - p^(x + 1)} below the limit. The tables hold this CDF for every possible number
+ * of extra levels, and a roll is a single random draw followed by a binary search over at most
+ * {@link #MAX_EXTRA_LEVELS} entries, independent of how high the configured max level is.
+ * <p>
+ * Tables are immutable and shared between all users of an equal curve.
+ */
+public final class LevelRollTable {
+
+    /**
+     * The largest number of extra levels a roll can produce (item enchantments are capped at level 255).
+     */
+    private static final int MAX_EXTRA_LEVELS = 255;
+
+    private static final int MIN_ENCHANTABILITY = 1;
+    private static final int MAX_ENCHANTABILITY = 50;
+
+    private static final Map<LevelRollCurve, LevelRollTable> TABLES = new ConcurrentHashMap<>();
+
+    /**
+     * {@code cdf[enchantability][x]} is the probability of gaining at most {@code x} extra levels.
+     */
+    private final double[][] cdf;
+
+    private LevelRollTable(double[][] cdf) {
+        this.cdf = cdf;
+    }
+
+    /**
+     * Gets the compiled table of a curve, building it on first use.
+     *
+     * @param curve The level roll curve.
+     * @return The shared table for the curve.
+     */
+    public static LevelRollTable of(LevelRollCurve curve) {
+        LevelRollTable table = TABLES.get(curve);
+        if (table == null) {
+            table = compile(curve);
+            LevelRollTable previous = TABLES.putIfAbsent(curve, table);
+            if (previous != null) {
+                table = previous;
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Rolls the final level of an enchantment.
+     *
+     * @param enchantability The enchantability of the target item; clamped between 1 and 50.
+     * @param startLevel     The level the roll starts from (the guaranteed minimum).
+     * @param maxLevel       The max level of the enchantment; the roll never exceeds it.
+     * @param random         The random source to draw from. Exactly one value is drawn unless
+     *                       {@code startLevel} is already at or above {@code maxLevel}.
+     * @return The rolled level.
+     */
+    public int roll(int enchantability, int startLevel, int maxLevel, RandomSource random) {
+        int limit = Math.min(maxLevel - startLevel, MAX_EXTRA_LEVELS);
+        if (limit <= 0) {
+            return startLevel;
+        }
+
+        double[] table = this.cdf[Math.clamp(enchantability, MIN_ENCHANTABILITY, MAX_ENCHANTABILITY)];
+        double draw = random.nextDouble();
+
+        // Find the smallest x below the limit with draw < P(extra <= x); the limit itself absorbs the rest
+        int low = 0;
+        int high = limit;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (draw < table[mid]) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return startLevel + low;
+    }
+
+    /**
+     * Builds the CDF of the number of extra levels for every enchantability.
+     */
+    private static LevelRollTable compile(LevelRollCurve curve) {
+        double[][] cdf = new double[MAX_ENCHANTABILITY + 1][];
+        for (int enchantability = MIN_ENCHANTABILITY; enchantability <= MAX_ENCHANTABILITY; enchantability++) {
+            double chance = Math.clamp(curve.successChance(enchantability), 0.0D, 1.0D);
+            double[] table = new double[MAX_EXTRA_LEVELS];
+
+            // P(extra > x) = chance^(x + 1), accumulated by multiplication
+            double tail = chance;
+            for (int x = 0; x < MAX_EXTRA_LEVELS; x++) {
+                table[x] = 1.0D - tail;
+                tail *= chance;
+            }
+            cdf[enchantability] = table;
+        }
+        return new LevelRollTable(cdf);
+    }
+}
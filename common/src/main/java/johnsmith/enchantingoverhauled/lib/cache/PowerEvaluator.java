@@ -0,0 +1,151 @@
+package johnsmith.enchantingoverhauled.lib.cache;
+
+import johnsmith.enchantingoverhauled.Constants;
+import johnsmith.enchantingoverhauled.accessor.ItemCountCacheAccessor;
+import johnsmith.enchantingoverhauled.api.enchantment.theme.power.PowerProvider;
+import johnsmith.enchantingoverhauled.api.enchantment.theme.power.bonus.AddIfBlockStateBonus;
+import johnsmith.enchantingoverhauled.api.enchantment.theme.power.bonus.CountItemsInInventoryBonus;
+import johnsmith.enchantingoverhauled.api.enchantment.theme.power.bonus.MultiplyByBlockStateBonus;
+import johnsmith.enchantingoverhauled.api.enchantment.theme.power.bonus.PowerBonus;
+
+import it.unimi.dsi.fastutil.objects.Reference2IntMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.block.state.StateDefinition;
+import net.minecraft.world.level.block.state.properties.IntegerProperty;
+import net.minecraft.world.level.block.state.properties.Property;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link PowerProvider} compiled for one specific block type.
+ * <p>
+ * All block-state dependent bonuses ({@link MultiplyByBlockStateBonus} and {@link AddIfBlockStateBonus})
+ * are resolved once against the block's {@link StateDefinition}: their properties are looked up and
+ * their target values compared for every possible state, producing a per-{@link BlockState} power table.
+ * Evaluating the provider is then a single table lookup, plus an inventory scan only if the provider
+ * declares {@link CountItemsInInventoryBonus}es, whose counts are cached on the block entity itself
+ * (see {@link ItemCountCacheAccessor}).
+ * <p>
+ * Evaluators are created by {@link ThemePowerIndex} and share its lifecycle.
+ */
+public final class PowerEvaluator {
+
+    private static final CountItemsInInventoryBonus[] NO_INVENTORY_BONUSES = new CountItemsInInventoryBonus[0];
+
+    /**
+     * The power of each block state, or {@code null} if the power does not depend on the state.
+     */
+    private final Reference2IntMap<BlockState> powerByState;
+
+    /**
+     * The power used when {@link #powerByState} is {@code null}.
+     */
+    private final int constantPower;
+
+    /**
+     * Bonuses that depend on the contents of the provider's block entity.
+     */
+    private final CountItemsInInventoryBonus[] inventoryBonuses;
+
+    private PowerEvaluator(Reference2IntMap<BlockState> powerByState, int constantPower, CountItemsInInventoryBonus[] inventoryBonuses) {
+        this.powerByState = powerByState;
+        this.constantPower = constantPower;
+        this.inventoryBonuses = inventoryBonuses;
+    }
+
+    /**
+     * Calculates the total power provided by a block, including all its data-driven bonuses.
+     *
+     * @param level The level containing the block.
+     * @param pos   The position of the block.
+     * @param state The block's current state (must belong to the block this evaluator was compiled for).
+     * @return The calculated power.
+     */
+    public int evaluate(Level level, BlockPos pos, BlockState state) {
+        int power = this.powerByState == null ? this.constantPower : this.powerByState.getInt(state);
+
+        if (this.inventoryBonuses.length > 0 && level.getBlockEntity(pos) instanceof ItemCountCacheAccessor counter) {
+            for (CountItemsInInventoryBonus inventoryBonus : this.inventoryBonuses) {
+                power += counter.enchanting_overhauled$countItems(inventoryBonus.items()) * inventoryBonus.bonusPerItem();
+            }
+        }
+        return power;
+    }
+
+    /**
+     * Compiles a power provider for a single block type.
+     *
+     * @param block    The block the provider applies to.
+     * @param provider The data-driven provider.
+     * @return The compiled evaluator.
+     */
+    public static PowerEvaluator compile(Block block, PowerProvider provider) {
+        StateDefinition<Block, BlockState> definition = block.getStateDefinition();
+        int basePower = provider.power();
+
+        List<IntegerProperty> multipliers = new ArrayList<>();
+        List<AddIfBlockStateBonus> conditionalBonuses = new ArrayList<>();
+        List<Property<?>> conditionalProperties = new ArrayList<>();
+        List<CountItemsInInventoryBonus> inventoryBonuses = new ArrayList<>();
+
+        // Resolve all properties once; bonuses referring to unknown properties never apply
+        for (PowerBonus bonus : provider.bonuses()) {
+            switch (bonus) {
+                case MultiplyByBlockStateBonus multiply -> {
+                    if (definition.getProperty(multiply.property()) instanceof IntegerProperty intProp) {
+                        multipliers.add(intProp);
+                    }
+                }
+                case AddIfBlockStateBonus conditional -> {
+                    Property<?> prop = definition.getProperty(conditional.property());
+                    if (prop != null) {
+                        conditionalBonuses.add(conditional);
+                        conditionalProperties.add(prop);
+                    }
+                }
+                case CountItemsInInventoryBonus inventory -> inventoryBonuses.add(inventory);
+            }
+        }
+
+        CountItemsInInventoryBonus[] inventoryBonusArray = inventoryBonuses.isEmpty()
+                ? NO_INVENTORY_BONUSES
+                : inventoryBonuses.toArray(NO_INVENTORY_BONUSES);
+
+        if (multipliers.isEmpty() && conditionalBonuses.isEmpty()) {
+            return new PowerEvaluator(null, basePower, inventoryBonusArray);
+        }
+
+        Reference2IntMap<BlockState> powerByState = new Reference2IntOpenHashMap<>(definition.getPossibleStates().size());
+        for (BlockState state : definition.getPossibleStates()) {
+            int power = basePower;
+
+            try {
+                for (IntegerProperty multiplier : multipliers) {
+                    power += basePower * (state.getValue(multiplier) - 1);
+                }
+                for (int i = 0; i < conditionalBonuses.size(); i++) {
+                    AddIfBlockStateBonus conditional = conditionalBonuses.get(i);
+                    String currentValue = state.getValue(conditionalProperties.get(i)).toString();
+                    if (currentValue.equalsIgnoreCase(conditional.value())) {
+                        power += conditional.bonus();
+                    }
+                }
+            } catch (Exception e) {
+                Constants.LOG.warn("Failed to calculate power bonus for {}: {}",
+                        BuiltInRegistries.BLOCK.getKey(block), e.getMessage());
+            }
+
+            powerByState.put(state, power);
+        }
+        powerByState.defaultReturnValue(basePower);
+
+        return new PowerEvaluator(powerByState, basePower, inventoryBonusArray);
+    }
+}
@@ -0,0 +1,118 @@
+package johnsmith.enchantingoverhauled.lib.cache;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * A small, thread-safe cache for data derived from a dynamic registry (or any other object whose
+ * contents only change when data is reloaded).
+ * <p>
+ * Values are keyed by the <i>identity</i> of their source object, so a new world (which creates fresh
+ * registry instances) naturally produces a new value. Tag reloads do not create new registries, which is
+ * why every cache additionally remembers the global reload generation it was built in; calling
+ * {@link #invalidateAll()} bumps that generation and forces every cache to rebuild lazily on next access.
+ * <p>
+ * Only {@link #SLOTS} entries are retained: one for the logical server and one for the logical client,
+ * which both exist in the same JVM in singleplayer. Older keys are simply evicted, so a value that happens
+ * to reference its own key can never keep a discarded registry alive.
+ *
+ * @param <K> The source object type (usually a {@link net.minecraft.core.Registry}).
+ * @param <V> The derived value type.
+ */
+public final class ReloadableCache<K, V> {
+
+    /**
+     * The number of distinct keys retained at the same time.
+     */
+    private static final int SLOTS = 2;
+
+    /**
+     * The global reload generation, incremented whenever tags or registries are reloaded.
+     */
+    private static final AtomicInteger GENERATION = new AtomicInteger();
+
+    private final Function<K, V> factory;
+    private final Object[] keys = new Object[SLOTS];
+    private final Object[] values = new Object[SLOTS];
+    private final int[] generations = new int[SLOTS];
+
+    /**
+     * Creates a new cache.
+     *
+     * @param factory The function used to (re)build the value for a given key.
+     */
+    public ReloadableCache(Function<K, V> factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * Retrieves the value derived from the given key, building it if it is missing or stale.
+     *
+     * @param key The source object.
+     * @return The cached value.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized V get(K key) {
+        int generation = GENERATION.get();
+
+        for (int i = 0; i < SLOTS; i++) {
+            if (this.keys[i] == key) {
+                if (this.generations[i] != generation) {
+                    this.values[i] = this.factory.apply(key);
+                    this.generations[i] = generation;
+                }
+                // Move to the front so the least recently used slot is evicted first
+                if (i != 0) {
+                    this.swapToFront(i);
+                }
+                return (V) this.values[0];
+            }
+        }
+
+        // Evict the least recently used slot
+        for (int i = SLOTS - 1; i > 0; i--) {
+            this.keys[i] = this.keys[i - 1];
+            this.values[i] = this.values[i - 1];
+            this.generations[i] = this.generations[i - 1];
+        }
+
+        V value = this.factory.apply(key);
+        this.keys[0] = key;
+        this.values[0] = value;
+        this.generations[0] = generation;
+        return value;
+    }
+
+    private void swapToFront(int index) {
+        Object key = this.keys[index];
+        Object value = this.values[index];
+        int generation = this.generations[index];
+
+        this.keys[index] = this.keys[0];
+        this.values[index] = this.values[0];
+        this.generations[index] = this.generations[0];
+
+        this.keys[0] = key;
+        this.values[0] = value;
+        this.generations[0] = generation;
+    }
+
+    /**
+     * Gets the current global reload generation.
+     * <p>
+     * Callers that keep derived data outside of a {@code ReloadableCache} can compare this value
+     * to decide whether their data is still valid.
+     *
+     * @return The current generation.
+     */
+    public static int generation() {
+        return GENERATION.get();
+    }
+
+    /**
+     * Marks every cache as stale. Values are rebuilt lazily the next time they are requested.
+     */
+    public static void invalidateAll() {
+        GENERATION.incrementAndGet();
+    }
+}
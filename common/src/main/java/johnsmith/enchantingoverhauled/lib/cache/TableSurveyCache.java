@@ -0,0 +1,214 @@
+package johnsmith.enchantingoverhauled.lib.cache;
+
+import johnsmith.enchantingoverhauled.accessor.TableSurveyCacheAccessor;
+import johnsmith.enchantingoverhauled.lib.TableEffects;
+import johnsmith.enchantingoverhauled.lib.TableNeighborhood;
+import johnsmith.enchantingoverhauled.lib.TableSurvey;
+
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.world.level.Level;
+
+/**
+ * A level-scoped store of {@link TableSurvey}s and {@link TableEffects}, keyed by enchanting table position.
+ * <p>
+ * Both are computed on first use and then reused until a block inside the table's
+ * 5x2x5 neighborhood changes (block state updates and block entity content changes, see
+ * {@code LevelMixin}), the table's block entity is removed, or tags are reloaded.
+ * Results read while part of the neighborhood was not loaded (e.g. a neighboring chunk that
+ * has not reached the client yet) are returned but never cached.
+ * Repeated menu interactions at an unchanged table therefore perform no world reads.
+ * <p>
+ * Block changes are reported for every block in the level, so the cache also counts, per chunk section,
+ * how many cached tables have part of their neighborhood in it. Changes in sections without any
+ * cached table (the vast majority, e.g. ticking furnaces and hoppers) return after a single lookup.
+ * <p>
+ * Each level owns exactly one instance, which is only accessed from that level's thread.
+ */
+public final class TableSurveyCache {
+
+    /**
+     * The horizontal reach of a table's neighborhood (providers sit two blocks away).
+     */
+    private static final int HORIZONTAL_RADIUS = 2;
+
+    /**
+     * The vertical reach of a table's neighborhood (providers sit at the table's level and one above).
+     */
+    private static final int VERTICAL_REACH = 1;
+
+    private final Long2ObjectOpenHashMap<CachedTable> tables = new Long2ObjectOpenHashMap<>();
+
+    /**
+     * The number of cached tables whose neighborhood overlaps each chunk section, keyed by
+     * {@link SectionPos#asLong}. Sections without any cached table are absent.
+     */
+    private final Long2IntOpenHashMap watchedSections = new Long2IntOpenHashMap();
+    private int generation = ReloadableCache.generation();
+
+    /**
+     * Gets the cached survey for a table, computing it if necessary.
+     *
+     * @param level    The level the table is in.
+     * @param tablePos The position of the enchanting table.
+     * @return The survey of the table's neighborhood.
+     */
+    public static TableSurvey survey(Level level, BlockPos tablePos) {
+        if (level instanceof TableSurveyCacheAccessor accessor) {
+            return accessor.enchanting_overhauled$getTableSurveyCache().get(level, tablePos);
+        }
+        return TableSurvey.scan(level, tablePos);
+    }
+
+    /**
+     * Gets the cached survey for a table, computing it if necessary.
+     *
+     * @param level    The level the table is in (must own this cache).
+     * @param tablePos The position of the enchanting table.
+     * @return The survey of the table's neighborhood.
+     */
+    public TableSurvey get(Level level, BlockPos tablePos) {
+        this.validateGeneration();
+
+        CachedTable table = this.tables.get(tablePos.asLong());
+        if (table != null && table.survey != null) {
+            return table.survey;
+        }
+
+        TableSurvey survey = TableSurvey.scan(level, tablePos);
+        if (TableNeighborhood.isLoaded(level, tablePos)) {
+            this.getOrCreate(tablePos).survey = survey;
+        }
+        return survey;
+    }
+
+    /**
+     * Gets the cached display effects for a table, computing them if necessary.
+     *
+     * @param level    The level the table is in.
+     * @param tablePos The position of the enchanting table.
+     * @return The display effects of the table.
+     */
+    public static TableEffects effects(Level level, BlockPos tablePos) {
+        if (level instanceof TableSurveyCacheAccessor accessor) {
+            return accessor.enchanting_overhauled$getTableSurveyCache().getEffects(level, tablePos);
+        }
+        return TableEffects.scan(level, tablePos);
+    }
+
+    /**
+     * Gets the cached display effects for a table, computing them if necessary.
+     *
+     * @param level    The level the table is in (must own this cache).
+     * @param tablePos The position of the enchanting table.
+     * @return The display effects of the table.
+     */
+    public TableEffects getEffects(Level level, BlockPos tablePos) {
+        this.validateGeneration();
+
+        CachedTable table = this.tables.get(tablePos.asLong());
+        if (table != null && table.effects != null) {
+            return table.effects;
+        }
+
+        TableEffects tableEffects = TableEffects.scan(level, tablePos);
+        if (TableNeighborhood.isLoaded(level, tablePos)) {
+            this.getOrCreate(tablePos).effects = tableEffects;
+        }
+        return tableEffects;
+    }
+
+    /**
+     * Invalidates every cached table whose neighborhood contains the given position.
+     *
+     * @param changedPos The position of the block that changed.
+     */
+    public void onBlockChanged(BlockPos changedPos) {
+        if (this.tables.isEmpty() || !this.watchedSections.containsKey(SectionPos.asLong(changedPos))) {
+            return;
+        }
+
+        int x = changedPos.getX();
+        int y = changedPos.getY();
+        int z = changedPos.getZ();
+
+        // A table at T sees blocks in [T.x-2, T.x+2] x [T.y, T.y+1] x [T.z-2, T.z+2],
+        // so the tables that can see the changed block lie in the mirrored box.
+        for (int dy = -VERTICAL_REACH; dy <= 0; dy++) {
+            for (int dx = -HORIZONTAL_RADIUS; dx <= HORIZONTAL_RADIUS; dx++) {
+                for (int dz = -HORIZONTAL_RADIUS; dz <= HORIZONTAL_RADIUS; dz++) {
+                    this.remove(BlockPos.asLong(x + dx, y + dy, z + dz));
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops the cached survey and effects of a single table, e.g. when its block entity is removed.
+     *
+     * @param tablePos The position of the enchanting table.
+     */
+    public void remove(BlockPos tablePos) {
+        this.remove(tablePos.asLong());
+    }
+
+    private void remove(long tableKey) {
+        if (this.tables.remove(tableKey) != null) {
+            this.watch(tableKey, -1);
+        }
+    }
+
+    private CachedTable getOrCreate(BlockPos tablePos) {
+        long key = tablePos.asLong();
+        CachedTable table = this.tables.get(key);
+        if (table == null) {
+            table = new CachedTable();
+            this.tables.put(key, table);
+            this.watch(key, 1);
+        }
+        return table;
+    }
+
+    /**
+     * Adds {@code delta} to the counter of every chunk section the table's neighborhood overlaps.
+     */
+    private void watch(long tableKey, int delta) {
+        int x = BlockPos.getX(tableKey);
+        int y = BlockPos.getY(tableKey);
+        int z = BlockPos.getZ(tableKey);
+
+        for (int sy = SectionPos.blockToSectionCoord(y); sy <= SectionPos.blockToSectionCoord(y + VERTICAL_REACH); sy++) {
+            for (int sx = SectionPos.blockToSectionCoord(x - HORIZONTAL_RADIUS); sx <= SectionPos.blockToSectionCoord(x + HORIZONTAL_RADIUS); sx++) {
+                for (int sz = SectionPos.blockToSectionCoord(z - HORIZONTAL_RADIUS); sz <= SectionPos.blockToSectionCoord(z + HORIZONTAL_RADIUS); sz++) {
+                    long section = SectionPos.asLong(sx, sy, sz);
+                    if (this.watchedSections.addTo(section, delta) + delta == 0) {
+                        this.watchedSections.remove(section);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Clears all surveys and effects if tags have been reloaded since they were computed.
+     */
+    private void validateGeneration() {
+        int current = ReloadableCache.generation();
+        if (this.generation != current) {
+            this.tables.clear();
+            this.watchedSections.clear();
+            this.generation = current;
+        }
+    }
+
+    /**
+     * The cached results of a single table; either may still be missing.
+     */
+    private static final class CachedTable {
+        private TableSurvey survey;
+        private TableEffects effects;
+    }
+}
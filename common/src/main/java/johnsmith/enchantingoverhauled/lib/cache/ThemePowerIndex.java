@@ -0,0 +1,166 @@
+package johnsmith.enchantingoverhauled.lib.cache;
+
+import johnsmith.enchantingoverhauled.api.enchantment.theme.EnchantmentTheme;
+import johnsmith.enchantingoverhauled.api.enchantment.theme.power.PowerProvider;
+import johnsmith.enchantingoverhauled.platform.Services;
+
+import it.unimi.dsi.fastutil.objects.Reference2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Holder;
+import net.minecraft.core.Registry;
+import net.minecraft.core.RegistryAccess;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.state.BlockState;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An immutable lookup table from {@link Block} to every {@link PowerProvider} that matches it,
+ * compiled from the {@link EnchantmentTheme} registry.
+ * <p>
+ * Power queries at the enchanting table used to walk every theme and every provider and test
+ * {@code HolderSet#contains} for each of the 15 bookshelf positions. This index answers the same
+ * question with a single identity-map lookup per block.
+ * <p>
+ * For each block, at most one entry per theme is stored: the <i>first</i> provider of that theme
+ * which lists the block, mirroring the previous "first match wins" behavior. Entries are ordered
+ * by theme registry order. Each entry carries its provider compiled against the block's state
+ * definition (see {@link PowerEvaluator}), so bonuses are resolved once per reload rather than per query.
+ * <p>
+ * Indices are cached per theme registry instance and rebuilt after tags are reloaded
+ * (see {@link ReloadableCache}).
+ */
+public final class ThemePowerIndex {
+
+    /**
+     * A single (theme, provider) pair that applies to a block.
+     *
+     * @param themeKey The key of the theme in its registry.
+     * @param theme    The theme the provider belongs to.
+     * @param provider  The first provider of the theme that lists the block.
+     * @param evaluator The provider compiled for the block this entry is stored under.
+     */
+    public record Entry(
+            ResourceKey<EnchantmentTheme> themeKey,
+            EnchantmentTheme theme,
+            PowerProvider provider,
+            PowerEvaluator evaluator
+    ) {
+        /**
+         * Calculates the power this entry's provider grants at the given position.
+         *
+         * @param level The level containing the block.
+         * @param pos   The position of the block.
+         * @param state The block's current state.
+         * @return The calculated power, including all bonuses.
+         */
+        public int getPower(Level level, BlockPos pos, BlockState state) {
+            return this.evaluator.evaluate(level, pos, state);
+        }
+    }
+
+    /**
+     * Shared empty result, returned for blocks that do not provide power to any theme.
+     */
+    public static final Entry[] NO_ENTRIES = new Entry[0];
+
+    /**
+     * An index without any providers, used when the theme registry is unavailable.
+     */
+    public static final ThemePowerIndex EMPTY = new ThemePowerIndex(new Reference2ObjectOpenHashMap<>());
+
+    private static final ReloadableCache<Registry<EnchantmentTheme>, ThemePowerIndex> CACHE =
+            new ReloadableCache<>(ThemePowerIndex::build);
+
+    private final Reference2ObjectMap<Block, Entry[]> entriesByBlock;
+
+    private ThemePowerIndex(Reference2ObjectMap<Block, Entry[]> entriesByBlock) {
+        this.entriesByBlock = entriesByBlock;
+        this.entriesByBlock.defaultReturnValue(NO_ENTRIES);
+    }
+
+    /**
+     * Gets the index for the theme registry contained in the given registry access.
+     *
+     * @param registryAccess The registry access of the current level.
+     * @return The compiled index, or {@link #EMPTY} if no theme registry is present.
+     */
+    public static ThemePowerIndex get(RegistryAccess registryAccess) {
+        return Services.PLATFORM.getThemeRegistry(registryAccess)
+                .map(CACHE::get)
+                .orElse(EMPTY);
+    }
+
+    /**
+     * Gets every (theme, provider) pair that applies to the given block.
+     *
+     * @param block The block to look up.
+     * @return The matching entries in theme registry order, never {@code null}. Must not be modified.
+     */
+    public Entry[] getEntries(Block block) {
+        return this.entriesByBlock.get(block);
+    }
+
+    /**
+     * Finds the provider of a specific theme that applies to the given block.
+     *
+     * @param block The block to look up.
+     * @param theme The theme instance (compared by identity).
+     * @return The matching entry, or {@code null} if the block does not provide power to the theme.
+     */
+    public Entry getEntry(Block block, EnchantmentTheme theme) {
+        for (Entry entry : this.entriesByBlock.get(block)) {
+            if (entry.theme() == theme) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks whether the given block is listed by any power provider of any theme.
+     *
+     * @param block The block to check.
+     * @return True if at least one theme lists the block.
+     */
+    public boolean isProvider(Block block) {
+        return this.entriesByBlock.containsKey(block);
+    }
+
+    /**
+     * Compiles the index from a theme registry. Expects tags to be bound.
+     */
+    private static ThemePowerIndex build(Registry<EnchantmentTheme> registry) {
+        Reference2ObjectMap<Block, List<Entry>> collected = new Reference2ObjectLinkedOpenHashMap<>();
+
+        registry.holders().forEach(themeHolder -> {
+            EnchantmentTheme theme = themeHolder.value();
+
+            for (PowerProvider provider : theme.powerProviders()) {
+                for (Holder<Block> blockHolder : provider.blocks()) {
+                    Block block = blockHolder.value();
+                    List<Entry> entries = collected.get(block);
+                    if (entries == null) {
+                        entries = new ArrayList<>(1);
+                        collected.put(block, entries);
+                    }
+
+                    // Only the first provider of a theme counts for a given block
+                    if (entries.isEmpty() || entries.getLast().theme() != theme) {
+                        entries.add(new Entry(themeHolder.key(), theme, provider, PowerEvaluator.compile(block, provider)));
+                    }
+                }
+            }
+        });
+
+        Reference2ObjectMap<Block, Entry[]> compiled = new Reference2ObjectOpenHashMap<>(collected.size());
+        collected.forEach((block, entries) -> compiled.put(block, entries.toArray(NO_ENTRIES)));
+        return new ThemePowerIndex(compiled);
+    }
+}
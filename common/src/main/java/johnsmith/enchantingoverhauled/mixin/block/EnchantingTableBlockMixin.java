@@ -1,19 +1,18 @@
 package johnsmith.enchantingoverhauled.mixin.block;
 
+import johnsmith.enchantingoverhauled.accessor.LastEnchantingTableAccessor;
 import johnsmith.enchantingoverhauled.accessor.TomeStorageAccessor;
-import johnsmith.enchantingoverhauled.api.enchantment.theme.EnchantmentTheme;
 import johnsmith.enchantingoverhauled.api.enchantment.theme.effect.EffectData;
 import johnsmith.enchantingoverhauled.api.enchantment.theme.effect.ParticleEffectData;
 import johnsmith.enchantingoverhauled.api.enchantment.theme.effect.SoundEffectData;
-import johnsmith.enchantingoverhauled.api.enchantment.theme.power.PowerProvider;
 import johnsmith.enchantingoverhauled.config.Config;
 import johnsmith.enchantingoverhauled.lib.EnchantmentLib;
+import johnsmith.enchantingoverhauled.lib.TableEffects;
+import johnsmith.enchantingoverhauled.lib.cache.TableSurveyCache;
 import johnsmith.enchantingoverhauled.mixin.accessor.AbstractBlockSettingsAccessor;
 import johnsmith.enchantingoverhauled.platform.Services;
 
 import net.minecraft.core.BlockPos;
-import net.minecraft.core.Holder;
-import net.minecraft.core.Registry;
 import net.minecraft.core.RegistryAccess;
 import net.minecraft.core.component.DataComponents;
 import net.minecraft.core.particles.ParticleOptions;
@@ -22,6 +21,7 @@ import net.minecraft.sounds.SoundEvents;
 import net.minecraft.sounds.SoundSource;
 import net.minecraft.stats.Stats;
 import net.minecraft.tags.BlockTags;
+import net.minecraft.world.InteractionResult;
 import net.minecraft.util.RandomSource;
 import net.minecraft.world.entity.item.ItemEntity;
 import net.minecraft.world.entity.monster.piglin.PiglinAi;
@@ -32,12 +32,12 @@ import net.minecraft.world.level.BlockGetter;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.LevelReader;
 import net.minecraft.world.level.block.BaseEntityBlock;
-import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.EnchantingTableBlock;
 import net.minecraft.world.level.block.entity.BlockEntity;
 import net.minecraft.world.level.block.state.BlockBehaviour;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.level.gameevent.GameEvent;
+import net.minecraft.world.phys.BlockHitResult;
 
 import org.jetbrains.annotations.NotNull;
 import org.spongepowered.asm.mixin.Final;
@@ -48,10 +48,9 @@ import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
 import org.spongepowered.asm.mixin.injection.ModifyArg;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
 
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 
 @Mixin(EnchantingTableBlock.class)
@@ -140,6 +139,24 @@ public abstract class EnchantingTableBlockMixin extends BaseEntityBlock {
         }
     }
 
+    /**
+     * Remembers the table on the client when it is used, so the client-side menu that is about to open
+     * knows which table's neighborhood to survey when previewing its options.
+     */
+    @Inject(method = "useWithoutItem", at = @At("HEAD"))
+    private void rememberUsedTable(
+            BlockState blockState,
+            Level level,
+            BlockPos blockPos,
+            Player player,
+            BlockHitResult hitResult,
+            CallbackInfoReturnable<InteractionResult> cir
+    ) {
+        if (level.isClientSide() && player instanceof LastEnchantingTableAccessor accessor) {
+            accessor.enchanting_overhauled$setLastEnchantingTable(blockPos.immutable());
+        }
+    }
+
     /**
      * Overrides the vanilla particle-spawning logic.
      * Now ALWAYS spawns vanilla glyphs, then optionally overlays theme effects.
@@ -161,123 +178,44 @@ public abstract class EnchantingTableBlockMixin extends BaseEntityBlock {
             return;
         }
 
-        // 1. Always spawn vanilla particles (Glyphs) for any valid provider
-        this.enchantingOverhauled$spawnAlwaysVanillaParticles(level, blockPos, randomSource);
-
-        // 2. Find the dominant theme based on nearby power
-        Optional<EnchantmentTheme> dominantThemeOpt = this.enchantingOverhauled$getDominantTheme(level, blockPos);
+        // Provider layout and dominant theme are cached per table until a nearby block changes
+        TableEffects tableEffects = TableSurveyCache.effects(level, blockPos);
 
-        // 3. If a dominant theme is found (and it has effects), spawn them
-        if (dominantThemeOpt.isPresent()) {
-            EnchantmentTheme theme = dominantThemeOpt.get();
-            // getDominantTheme only returns themes with !effects.isEmpty(), so this is safe
-            EffectData effects = theme.effects().get();
+        // 1. Always spawn vanilla particles (Glyphs) for any valid provider
+        this.enchantingOverhauled$spawnAlwaysVanillaParticles(level, blockPos, randomSource, tableEffects.getGlyphMask());
 
+        // 2. If a dominant theme with effects is found, spawn them
+        EffectData effects = tableEffects.getDominantEffects();
+        if (effects != null) {
             // Spawn particles/sound at the enchanting table itself
             this.enchantingOverhauled$spawnThemedEffects(level, blockPos, randomSource, effects, false);
 
-            // Spawn particles/sound at the power providers
-            for(BlockPos providerOffset : BOOKSHELF_OFFSETS) {
-                BlockPos providerPos = blockPos.offset(providerOffset);
-
-                // Check if this provider block matches the dominant theme
-                if (EnchantmentLib.getEnchantingPower(level, providerPos, theme) > 0) {
-                    // Check if the transmitter block is clear
-                    BlockPos transmitterPos = blockPos.offset(providerOffset.getX() / 2, providerOffset.getY(), providerOffset.getZ() / 2);
-                    if (level.getBlockState(transmitterPos).is(BlockTags.ENCHANTMENT_POWER_TRANSMITTER)) {
-                        this.enchantingOverhauled$spawnThemedEffects(level, providerPos, randomSource, effects, true);
-                    }
-                }
+            // Spawn particles/sound at the providers of the dominant theme
+            for (long mask = tableEffects.getThemedMask(); mask != 0L; mask &= mask - 1L) {
+                BlockPos providerPos = blockPos.offset(BOOKSHELF_OFFSETS.get(Long.numberOfTrailingZeros(mask)));
+                this.enchantingOverhauled$spawnThemedEffects(level, providerPos, randomSource, effects, true);
             }
         }
     }
 
     /**
      * Spawns the vanilla 'enchant' particles for ANY block that provides power of ANY theme.
-     */
-    @Unique
-    private void enchantingOverhauled$spawnAlwaysVanillaParticles(Level level, BlockPos blockPos, RandomSource randomSource) {
-        RegistryAccess registryAccess = level.registryAccess();
-        Optional<Registry<EnchantmentTheme>> themeRegistryOpt = Services.PLATFORM.getThemeRegistry(registryAccess);
-
-        if (themeRegistryOpt.isEmpty()) return;
-        Registry<EnchantmentTheme> themeRegistry = themeRegistryOpt.get();
-
-        for(BlockPos providerOffset : BOOKSHELF_OFFSETS) {
-            BlockPos providerPos = blockPos.offset(providerOffset);
-            boolean providesPower = false;
-
-            // Inefficient but reliable: Check if this block provides power
-            for (EnchantmentTheme theme : themeRegistry) {
-                if (EnchantmentLib.getEnchantingPower(level, providerPos, theme) > 0) {
-                    providesPower = true;
-                    break;
-                }
-            }
-
-            if (providesPower) {
-                BlockPos transmitterPos = blockPos.offset(providerOffset.getX() / 2, providerOffset.getY(), providerOffset.getZ() / 2);
-                if (level.getBlockState(transmitterPos).is(BlockTags.ENCHANTMENT_POWER_TRANSMITTER)) {
-                    level.addParticle(ParticleTypes.ENCHANT,
-                            (double)blockPos.getX() + 0.5D,
-                            (double)blockPos.getY() + 2.0D,
-                            (double)blockPos.getZ() + 0.5D,
-                            (double)((float)providerOffset.getX() + randomSource.nextFloat()) - 0.5D,
-                            (double)((float)providerOffset.getY() - randomSource.nextFloat() - 1.0F),
-                            (double)((float)providerOffset.getZ() + randomSource.nextFloat()) - 0.5D
-                    );
-                }
-            }
-        }
-    }
-
-    /**
-     * Finds the theme that is providing the most power to the table.
-     * Skips themes that do not have any effects defined.
      *
-     * @param level The world.
-     * @param blockPos The BlockPos of the enchanting table.
-     * @return An Optional containing the dominant EnchantmentTheme.
+     * @param glyphMask The providers to spawn particles for, indexed like {@code BOOKSHELF_OFFSETS}.
      */
     @Unique
-    private Optional<EnchantmentTheme> enchantingOverhauled$getDominantTheme(Level level, BlockPos blockPos) {
-        Map<EnchantmentTheme, Integer> themePower = new HashMap<>();
-
-        RegistryAccess registryAccess = level.registryAccess();
-        Optional<Registry<EnchantmentTheme>> themeRegistryOpt = Services.PLATFORM.getThemeRegistry(registryAccess);
-
-        if (themeRegistryOpt.isEmpty()) return Optional.empty();
-
-        Registry<EnchantmentTheme> themeRegistry = themeRegistryOpt.get();
-
-        for (BlockPos providerOffset : BOOKSHELF_OFFSETS) {
-            BlockPos transmitterPos = blockPos.offset(providerOffset.getX() / 2, providerOffset.getY(), providerOffset.getZ() / 2);
-            if (!level.getBlockState(transmitterPos).is(BlockTags.ENCHANTMENT_POWER_TRANSMITTER)) {
-                continue;
-            }
-
-            BlockPos providerPos = blockPos.offset(providerOffset);
-            BlockState providerState = level.getBlockState(providerPos);
-            Holder<Block> blockEntry = providerState.getBlockHolder();
-
-            for (EnchantmentTheme theme : themeRegistry) {
-                // Only consider themes that actually have effects to play
-                if (theme.effects().isEmpty()) {
-                    continue;
-                }
-
-                for (PowerProvider provider : theme.powerProviders()) {
-                    if (provider.blocks().contains(blockEntry)) {
-                        themePower.merge(theme, provider.power(), Integer::sum);
-                        break;
-                    }
-                }
-            }
+    private void enchantingOverhauled$spawnAlwaysVanillaParticles(Level level, BlockPos blockPos, RandomSource randomSource, long glyphMask) {
+        for (long mask = glyphMask; mask != 0L; mask &= mask - 1L) {
+            BlockPos providerOffset = BOOKSHELF_OFFSETS.get(Long.numberOfTrailingZeros(mask));
+            level.addParticle(ParticleTypes.ENCHANT,
+                    (double)blockPos.getX() + 0.5D,
+                    (double)blockPos.getY() + 2.0D,
+                    (double)blockPos.getZ() + 0.5D,
+                    (double)((float)providerOffset.getX() + randomSource.nextFloat()) - 0.5D,
+                    (double)((float)providerOffset.getY() - randomSource.nextFloat() - 1.0F),
+                    (double)((float)providerOffset.getZ() + randomSource.nextFloat()) - 0.5D
+            );
         }
-
-        return themePower.entrySet().stream()
-                .max(Map.Entry.comparingByValue())
-                .map(Map.Entry::getKey);
     }
 
     @Unique
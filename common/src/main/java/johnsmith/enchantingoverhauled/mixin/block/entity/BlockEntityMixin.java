@@ -0,0 +1,111 @@
+package johnsmith.enchantingoverhauled.mixin.block.entity;
+
+import johnsmith.enchantingoverhauled.accessor.ItemCountCacheAccessor;
+import johnsmith.enchantingoverhauled.accessor.TableSurveyCacheAccessor;
+import johnsmith.enchantingoverhauled.lib.cache.ReloadableCache;
+
+import it.unimi.dsi.fastutil.objects.Reference2IntMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.HolderLookup;
+import net.minecraft.core.HolderSet;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.world.Container;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.block.state.BlockState;
+
+import org.jetbrains.annotations.Nullable;
+import org.spongepowered.asm.mixin.Final;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.Unique;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+/**
+ * Mixin to {@link BlockEntity} to cache the item counts requested by
+ * {@code count_items_in_inventory} power bonuses.
+ * <p>
+ * The cache is dropped whenever the block entity is marked as changed, receives a new
+ * block state (e.g. a chiseled bookshelf gaining a book), or is loaded from data
+ * (e.g. a client-side sync), and after tags are reloaded.
+ * <p>
+ * Loading from data also invalidates the table surveys of the level: on the client, synced
+ * container contents arrive this way and never pass through {@code Level.blockEntityChanged}.
+ */
+@Mixin(BlockEntity.class)
+public abstract class BlockEntityMixin implements ItemCountCacheAccessor {
+
+    @Shadow
+    @Nullable
+    protected Level level;
+
+    @Shadow
+    @Final
+    protected BlockPos worldPosition;
+
+    @Unique
+    private Reference2IntMap<HolderSet<Item>> enchanting_overhauled$itemCounts;
+
+    @Unique
+    private int enchanting_overhauled$itemCountGeneration;
+
+    @Override
+    public int enchanting_overhauled$countItems(HolderSet<Item> items) {
+        if (!((Object) this instanceof Container inventory)) {
+            return 0;
+        }
+
+        int generation = ReloadableCache.generation();
+        if (this.enchanting_overhauled$itemCounts == null) {
+            this.enchanting_overhauled$itemCounts = new Reference2IntOpenHashMap<>(2);
+            this.enchanting_overhauled$itemCounts.defaultReturnValue(-1);
+        } else if (this.enchanting_overhauled$itemCountGeneration != generation) {
+            this.enchanting_overhauled$itemCounts.clear();
+        }
+        this.enchanting_overhauled$itemCountGeneration = generation;
+
+        int count = this.enchanting_overhauled$itemCounts.getInt(items);
+        if (count < 0) {
+            count = 0;
+            for (int i = 0; i < inventory.getContainerSize(); i++) {
+                ItemStack stack = inventory.getItem(i);
+                if (!stack.isEmpty() && items.contains(stack.getItemHolder())) {
+                    count += stack.getCount();
+                }
+            }
+            this.enchanting_overhauled$itemCounts.put(items, count);
+        }
+        return count;
+    }
+
+    @Unique
+    private void enchanting_overhauled$invalidateItemCounts() {
+        if (this.enchanting_overhauled$itemCounts != null) {
+            this.enchanting_overhauled$itemCounts.clear();
+        }
+    }
+
+    @Inject(method = "setChanged()V", at = @At("HEAD"))
+    private void invalidateItemCountsOnChange(CallbackInfo ci) {
+        this.enchanting_overhauled$invalidateItemCounts();
+    }
+
+    @Inject(method = "setBlockState", at = @At("HEAD"))
+    private void invalidateItemCountsOnStateChange(BlockState state, CallbackInfo ci) {
+        this.enchanting_overhauled$invalidateItemCounts();
+    }
+
+    @Inject(method = "loadWithComponents", at = @At("HEAD"))
+    private void invalidateItemCountsOnLoad(CompoundTag tag, HolderLookup.Provider registries, CallbackInfo ci) {
+        this.enchanting_overhauled$invalidateItemCounts();
+        if (this.level instanceof TableSurveyCacheAccessor accessor) {
+            accessor.enchanting_overhauled$getTableSurveyCache().onBlockChanged(this.worldPosition);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package johnsmith.enchantingoverhauled.mixin.block.entity;
 
+import johnsmith.enchantingoverhauled.accessor.TableSurveyCacheAccessor;
 import johnsmith.enchantingoverhauled.accessor.TomeStorageAccessor;
 
 import net.minecraft.core.BlockPos;
@@ -33,4 +34,13 @@ public abstract class EnchantingTableBlockEntityMixin extends BlockEntity implem
         this.enchanting_overhauled$tomeStack = stack;
         this.setChanged();
     }
+
+    // Drop the cached power survey of this table once it is broken or unloaded
+    @Override
+    public void setRemoved() {
+        super.setRemoved();
+        if (this.level instanceof TableSurveyCacheAccessor accessor) {
+            accessor.enchanting_overhauled$getTableSurveyCache().remove(this.worldPosition);
+        }
+    }
 }
@@ -7,6 +7,9 @@ import johnsmith.enchantingoverhauled.api.enchantment.EnchantmentSource;
 import johnsmith.enchantingoverhauled.api.enchantment.theme.EnchantmentTheme;
 import johnsmith.enchantingoverhauled.config.Config;
 import johnsmith.enchantingoverhauled.lib.EnchantmentLib;
+import johnsmith.enchantingoverhauled.lib.EnchantmentOptions;
+import johnsmith.enchantingoverhauled.lib.cache.EnchantmentIndex;
+import johnsmith.enchantingoverhauled.network.EnchantmentBatchPayload;
 
 import com.mojang.blaze3d.systems.RenderSystem;
 
@@ -18,9 +21,7 @@ import net.minecraft.client.gui.screens.inventory.AbstractContainerScreen;
 import net.minecraft.client.gui.screens.inventory.EnchantmentNames;
 import net.minecraft.client.gui.screens.inventory.EnchantmentScreen;
 import net.minecraft.core.Holder;
-import net.minecraft.core.IdMap;
 import net.minecraft.core.Registry;
-import net.minecraft.core.registries.Registries;
 import net.minecraft.network.chat.Component;
 import net.minecraft.network.chat.MutableComponent;
 import net.minecraft.network.chat.Style;
@@ -396,7 +397,9 @@ public abstract class EnchantmentScreenMixin extends AbstractContainerScreen<Enc
 
         // 3. Get Data from Accessor
         EnchantmentMenuAccessor accessor = (EnchantmentMenuAccessor) this.menu;
-        int[] enchantmentSources = accessor.enchanting_overhauled$getEnchantmentSourceArray();
+        // The client's preview until the server's options arrive
+        EnchantmentOptions options = accessor.enchanting_overhauled$getDisplayedOptions();
+        int[] enchantmentSources = options.sources();
         // Get texture indices from handler
         int[] targetTextureIndices = accessor.enchanting_overhauled$getTargetTextureIndices();
         int[] sourceTextureIndices = accessor.enchanting_overhauled$getSourceTextureIndices();
@@ -406,19 +409,17 @@ public abstract class EnchantmentScreenMixin extends AbstractContainerScreen<Enc
         for (int buttonIndex = 0; buttonIndex < REROLL_BUTTON_INDEX; ++buttonIndex) {
             int buttonX = alignX + ENCHANTING_BUTTON_X_OFFSET;
             int buttonY = alignY + ENCHANTING_BUTTON_Y_OFFSET + ENCHANTING_BUTTON_HEIGHT * buttonIndex;
-            int enchantingPower = ((EnchantmentMenu) this.menu).costs[buttonIndex];
+            int enchantingPower = options.costs()[buttonIndex];
             int source = enchantmentSources[buttonIndex];
 
-            int id = ((EnchantmentMenu) this.menu).enchantClue[buttonIndex];
+            int id = options.enchantClue()[buttonIndex];
 
             Holder<Enchantment> enchantment = null;
             if (id >= 0 && this.minecraft.level != null) {
-                IdMap<Holder<Enchantment>> idMap =
-                        this.minecraft.level.registryAccess().registryOrThrow(Registries.ENCHANTMENT).asHolderIdMap();
-                enchantment = idMap.byId(id);
+                enchantment = accessor.enchanting_overhauled$getEnchantmentIndex(this.minecraft.level.registryAccess()).byId(id);
             }
 
-            int level = ((EnchantmentMenu) this.menu).levelClue[buttonIndex];
+            int level = options.levelClue()[buttonIndex];
 
             if (enchantingPower <= 0 || enchantment == null) {
                 // Case 1: Empty Slot
@@ -937,8 +938,8 @@ public abstract class EnchantmentScreenMixin extends AbstractContainerScreen<Enc
         boolean targetIsSourceEnchantable = Arrays.stream(enchantmentSources)
                                                   .anyMatch(element -> element == EnchantmentSource.SOURCE.getId());
 
-        ItemStack curseFreeTarget = EnchantmentLib.removeCursesFrom(target);
-        int occupiedSlots = EnchantmentLib.getEnchantments(curseFreeTarget).size();
+        EnchantmentIndex index = accessor.enchanting_overhauled$getEnchantmentIndex(this.minecraft.level.registryAccess());
+        int occupiedSlots = EnchantmentLib.getEnchantmentsWithoutCurses(target, index).size();
 
         int rerollCost = occupiedSlots + 1;
         int costIndex = Math.max(0, rerollCost - 1); // Clamp index
@@ -1077,6 +1078,17 @@ public abstract class EnchantmentScreenMixin extends AbstractContainerScreen<Enc
             }
         }
 
+        // If enabled, shift-clicking an option also applies every other option that is still affordable, as one action
+        if (Config.BINARY_SHIFT_CLICK_BATCH_ENCHANTING.get()
+                && clickedButtonIndex >= 0 && clickedButtonIndex < REROLL_BUTTON_INDEX
+                && hasShiftDown()) {
+            int[] batch = this.enchanting_overhauled$selectBatch(clickedButtonIndex);
+            if (batch.length > 1) {
+                Services.PLATFORM.sendToServer(new EnchantmentBatchPayload(this.menu.containerId, batch));
+                return true;
+            }
+        }
+
         // Single execution point for the click action
         if (clickedButtonIndex != -1) {
             if (((EnchantmentMenu) this.menu).clickMenuButton(this.minecraft.player, clickedButtonIndex)) {
@@ -1086,6 +1098,32 @@ public abstract class EnchantmentScreenMixin extends AbstractContainerScreen<Enc
         }
 
         return super.mouseClicked(mouseX, mouseY, button);
+    }
+
+    /**
+     * Builds the batch for a shift-click: the clicked option first, followed by every other option
+     * that can still be applied after the ones before it. Each candidate batch is checked by the
+     * client-side menu, which applies the server's rules without changing anything.
+     *
+     * @param clickedButtonIndex The option that was clicked (0-2).
+     * @return The option buttons to apply, in order; only the clicked one if no other option fits.
+     */
+    @Unique
+    private int[] enchanting_overhauled$selectBatch(int clickedButtonIndex) {
+        EnchantmentMenuAccessor accessor = (EnchantmentMenuAccessor) this.menu;
+        int[] batch = { clickedButtonIndex };
+
+        for (int i = 0; i < REROLL_BUTTON_INDEX; i++) {
+            if (i == clickedButtonIndex) {
+                continue;
+            }
+            int[] candidate = Arrays.copyOf(batch, batch.length + 1);
+            candidate[batch.length] = i;
+            if (accessor.enchanting_overhauled$clickMenuButtons(this.minecraft.player, candidate)) {
+                batch = candidate;
+            }
+        }
+        return batch;
     } // endregion
 
     // region Render
@@ -1173,21 +1211,20 @@ public abstract class EnchantmentScreenMixin extends AbstractContainerScreen<Enc
             int lapisCount,
             boolean isCreative
     ) {
-        int[] enchantmentSources = accessor.enchanting_overhauled$getEnchantmentSourceArray();
+        EnchantmentOptions options = accessor.enchanting_overhauled$getDisplayedOptions();
+        int[] enchantmentSources = options.sources();
 
         for (int buttonIndex = 0; buttonIndex < REROLL_BUTTON_INDEX; ++buttonIndex) {
-            int powerRequirement = ((EnchantmentMenu) this.menu).costs[buttonIndex];
-            int id = ((EnchantmentMenu) this.menu).enchantClue[buttonIndex];
+            int powerRequirement = options.costs()[buttonIndex];
+            int id = options.enchantClue()[buttonIndex];
 
             // Updated Lookup
             Holder<Enchantment> enchantment = null;
             if (id >= 0 && this.minecraft.level != null) {
-                IdMap<Holder<Enchantment>> idMap =
-                        this.minecraft.level.registryAccess().registryOrThrow(Registries.ENCHANTMENT).asHolderIdMap();
-                enchantment = idMap.byId(id);
+                enchantment = accessor.enchanting_overhauled$getEnchantmentIndex(this.minecraft.level.registryAccess()).byId(id);
             }
 
-            int enchantmentLevel = ((EnchantmentMenu) this.menu).levelClue[buttonIndex];
+            int enchantmentLevel = options.levelClue()[buttonIndex];
             int source = enchantmentSources[buttonIndex];
             int buttonY = ENCHANTING_BUTTON_Y_OFFSET + (ENCHANTING_BUTTON_HEIGHT * buttonIndex);
 
@@ -1481,14 +1518,14 @@ public abstract class EnchantmentScreenMixin extends AbstractContainerScreen<Enc
         if (this.isHovering(REROLL_BUTTON_X_OFFSET, REROLL_BUTTON_Y_OFFSET, REROLL_BUTTON_WIDTH,
                 REROLL_BUTTON_HEIGHT, (double) mouseX, (double) mouseY)) {
             // Check reroll validity
-            int[] enchantmentSources = accessor.enchanting_overhauled$getEnchantmentSourceArray();
+            int[] enchantmentSources = accessor.enchanting_overhauled$getDisplayedOptions().sources();
             ItemStack target = accessor.enchanting_overhauled$getEnchantmentTarget();
             boolean targetIsEmpty = target.isEmpty();
             boolean targetIsEnchantable = !targetIsEmpty && (target.is(Items.BOOK) || target.isEnchantable());
             boolean targetIsSourceEnchantable = Arrays.stream(enchantmentSources)
                     .anyMatch(element -> element == EnchantmentSource.SOURCE.getId());
-            ItemStack curseFreeTarget = EnchantmentLib.removeCursesFrom(target);
-            int occupiedSlots = EnchantmentLib.getEnchantments(curseFreeTarget).size();
+            EnchantmentIndex index = accessor.enchanting_overhauled$getEnchantmentIndex(this.minecraft.level.registryAccess());
+            int occupiedSlots = EnchantmentLib.getEnchantmentsWithoutCurses(target, index).size();
             int rerollCost = occupiedSlots + 1;
             boolean canReroll = occupiedSlots < 3 && !targetIsSourceEnchantable && targetIsEnchantable;
 
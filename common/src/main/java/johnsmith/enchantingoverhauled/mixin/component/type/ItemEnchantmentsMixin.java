@@ -1,6 +1,8 @@
 package johnsmith.enchantingoverhauled.mixin.component.type;
 
+import johnsmith.enchantingoverhauled.accessor.EnchantmentViewAccessor;
 import johnsmith.enchantingoverhauled.config.Config;
+import johnsmith.enchantingoverhauled.lib.EnchantmentView;
 
 import it.unimi.dsi.fastutil.objects.Object2IntMap;
 import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
@@ -35,7 +37,7 @@ import java.util.Optional;
 import java.util.function.Consumer;
 
 @Mixin(ItemEnchantments.class)
-public abstract class ItemEnchantmentsMixin {
+public abstract class ItemEnchantmentsMixin implements EnchantmentViewAccessor {
 
     @Shadow @Final
     Object2IntOpenHashMap<Holder<Enchantment>> enchantments;
@@ -49,6 +51,23 @@ public abstract class ItemEnchantmentsMixin {
     @Unique
     private static final int MAX_LINE_LENGTH = 40;
 
+    /**
+     * The indexed view of this component, built on first use. The component never changes after
+     * construction, so the view never needs to be invalidated.
+     */
+    @Unique
+    private EnchantmentView enchanting_overhauled$view;
+
+    @Override
+    public EnchantmentView enchanting_overhauled$getView() {
+        EnchantmentView view = this.enchanting_overhauled$view;
+        if (view == null) {
+            view = EnchantmentView.build(this.enchantments);
+            this.enchanting_overhauled$view = view;
+        }
+        return view;
+    }
+
     @Unique
     private void enchanting_Overhauled$addEnchantmentDescription(Holder<Enchantment> enchantmentHolder, Consumer<Component> tooltip) {
         if (!Config.BINARY_ACCESSIBILITY_SHOW_ENCHANTMENT_DESCRIPTIONS.get()) {
@@ -1,9 +1,11 @@
 package johnsmith.enchantingoverhauled.mixin.entity.player;
 
+import johnsmith.enchantingoverhauled.accessor.LastEnchantingTableAccessor;
 import johnsmith.enchantingoverhauled.api.enchantment.effect.EnchantmentEffectComponentRegistry;
 import johnsmith.enchantingoverhauled.api.enchantment.effect.VanishingCurseEffect;
 import johnsmith.enchantingoverhauled.api.player.SavedItemEntry;
 import johnsmith.enchantingoverhauled.api.player.SavedItemsAccessor;
+import net.minecraft.core.BlockPos;
 import net.minecraft.core.Holder;
 import net.minecraft.core.component.DataComponentType;
 import net.minecraft.world.entity.player.Player;
@@ -22,7 +24,7 @@ import java.util.List;
 import java.util.Map;
 
 @Mixin(Player.class)
-public class CommonPlayerMixin implements SavedItemsAccessor {
+public class CommonPlayerMixin implements SavedItemsAccessor, LastEnchantingTableAccessor {
 
     @Unique
     private final List<SavedItemEntry> enchanting_overhauled$savedItems = new ArrayList<>();
@@ -37,6 +39,19 @@ public class CommonPlayerMixin implements SavedItemsAccessor {
         this.enchanting_overhauled$savedItems.add(entry);
     }
 
+    @Unique
+    private BlockPos enchanting_overhauled$lastEnchantingTable;
+
+    @Override
+    public BlockPos enchanting_overhauled$getLastEnchantingTable() {
+        return this.enchanting_overhauled$lastEnchantingTable;
+    }
+
+    @Override
+    public void enchanting_overhauled$setLastEnchantingTable(BlockPos pos) {
+        this.enchanting_overhauled$lastEnchantingTable = pos;
+    }
+
     /**
      * Redirects the check inside destroyVanishingCursedItems().
      * If we return FALSE, the item is NOT destroyed and will be dropped normally later.
@@ -0,0 +1,51 @@
+package johnsmith.enchantingoverhauled.mixin.level;
+
+import johnsmith.enchantingoverhauled.accessor.TableSurveyCacheAccessor;
+import johnsmith.enchantingoverhauled.lib.cache.TableSurveyCache;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.state.BlockState;
+
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+/**
+ * Mixin to {@link Level} to attach a {@link TableSurveyCache} to every level
+ * and keep it consistent with block changes.
+ */
+@Mixin(Level.class)
+public abstract class LevelMixin implements TableSurveyCacheAccessor {
+
+    @Unique
+    private final TableSurveyCache enchanting_overhauled$tableSurveyCache = new TableSurveyCache();
+
+    @Override
+    public TableSurveyCache enchanting_overhauled$getTableSurveyCache() {
+        return this.enchanting_overhauled$tableSurveyCache;
+    }
+
+    /**
+     * Invalidates the surveys of nearby enchanting tables whenever a block state actually changes.
+     */
+    @Inject(method = "setBlock(Lnet/minecraft/core/BlockPos;Lnet/minecraft/world/level/block/state/BlockState;II)Z",
+            at = @At("RETURN"))
+    private void invalidateTableSurveysOnSetBlock(BlockPos pos, BlockState state, int flags, int recursionLeft, CallbackInfoReturnable<Boolean> cir) {
+        if (cir.getReturnValueZ()) {
+            this.enchanting_overhauled$tableSurveyCache.onBlockChanged(pos);
+        }
+    }
+
+    /**
+     * Invalidates the surveys of nearby enchanting tables whenever a block entity's contents change
+     * (e.g. items inserted into a chiseled bookshelf or barrel counted by a power bonus).
+     */
+    @Inject(method = "blockEntityChanged", at = @At("HEAD"))
+    private void invalidateTableSurveysOnBlockEntityChanged(BlockPos pos, CallbackInfo ci) {
+        this.enchanting_overhauled$tableSurveyCache.onBlockChanged(pos);
+    }
+}
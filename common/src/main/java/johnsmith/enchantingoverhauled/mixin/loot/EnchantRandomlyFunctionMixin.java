@@ -1,11 +1,12 @@
 package johnsmith.enchantingoverhauled.mixin.loot;
 
 import johnsmith.enchantingoverhauled.lib.EnchantmentLib;
+import johnsmith.enchantingoverhauled.lib.cache.EnchantmentIndex;
+import johnsmith.enchantingoverhauled.lib.cache.ReloadableCache;
 import johnsmith.enchantingoverhauled.platform.Services;
 
 import net.minecraft.core.Holder;
 import net.minecraft.core.HolderSet;
-import net.minecraft.core.registries.Registries;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.item.enchantment.Enchantment;
 import net.minecraft.world.level.storage.loot.LootContext;
@@ -14,14 +15,13 @@ import net.minecraft.world.level.storage.loot.functions.EnchantRandomlyFunction;
 import org.spongepowered.asm.mixin.Final;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.Unique;
 import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
 
 import java.util.List;
 import java.util.Optional;
-import java.util.function.Function;
-import java.util.stream.Collectors;
 
 @Mixin(EnchantRandomlyFunction.class)
 public class EnchantRandomlyFunctionMixin {
@@ -30,6 +30,17 @@ public class EnchantRandomlyFunctionMixin {
     @Shadow @Final
     private Optional<HolderSet<Enchantment>> options;
 
+    /**
+     * The resolved contents of {@link #options}, or {@code null} if not resolved yet.
+     * The set may be a tag, so its contents are resolved again after every reload.
+     */
+    @Unique
+    private List<Holder<Enchantment>> enchanting_overhauled$candidates;
+
+    /** The reload generation {@link #enchanting_overhauled$candidates} was resolved in. */
+    @Unique
+    private int enchanting_overhauled$candidatesGeneration;
+
     @Inject(method = "run", at = @At("HEAD"), cancellable = true)
     private void applyTomeEnchantments(ItemStack stack, LootContext context, CallbackInfoReturnable<ItemStack> cir) {
 
@@ -42,17 +53,33 @@ public class EnchantRandomlyFunctionMixin {
         // 2. Update Candidate Selection
         // Use the 'options' field if present, otherwise fetch all enchantments from the level's registry access.
         // In 1.21, enchantments are dynamic, so avoid BuiltInRegistries.
-        List<Holder<Enchantment>> candidates = this.options
-                .map(HolderSet::stream)
-                .orElseGet(() -> context.getLevel().registryAccess()
-                        .registryOrThrow(Registries.ENCHANTMENT)
-                        .holders()
-                        .map(h -> (Holder<Enchantment>) h))
-                .collect(Collectors.toList());
+        List<Holder<Enchantment>> candidates = this.options.isPresent()
+                ? this.enchanting_overhauled$getCandidates(this.options.get())
+                : EnchantmentIndex.get(context.getLevel().registryAccess()).getHolders();
 
         // 3. Delegate to your library logic
         ItemStack result = EnchantmentLib.applyTomeEnchantments(stack, candidates, context.getRandom());
 
         cir.setReturnValue(result);
     }
-}
\ No newline at end of file
+
+    /**
+     * Gets the contents of this function's enchantment set, resolving them once per reload
+     * instead of on every loot roll.
+     *
+     * @param options The enchantment set of this function.
+     * @return An immutable random-access list of the set's enchantments.
+     */
+    @Unique
+    private List<Holder<Enchantment>> enchanting_overhauled$getCandidates(HolderSet<Enchantment> options) {
+        int generation = ReloadableCache.generation();
+        List<Holder<Enchantment>> candidates = this.enchanting_overhauled$candidates;
+
+        if (candidates == null || this.enchanting_overhauled$candidatesGeneration != generation) {
+            candidates = options.stream().toList();
+            this.enchanting_overhauled$candidates = candidates;
+            this.enchanting_overhauled$candidatesGeneration = generation;
+        }
+        return candidates;
+    }
+}
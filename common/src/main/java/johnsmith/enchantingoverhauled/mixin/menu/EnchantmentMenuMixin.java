@@ -1,21 +1,36 @@
 package johnsmith.enchantingoverhauled.mixin.menu;
 
+import johnsmith.enchantingoverhauled.Constants;
 import johnsmith.enchantingoverhauled.accessor.EnchantmentMenuAccessor;
+import johnsmith.enchantingoverhauled.accessor.LastEnchantingTableAccessor;
 import johnsmith.enchantingoverhauled.api.enchantment.EnchantmentSource;
+import johnsmith.enchantingoverhauled.config.Config;
 import johnsmith.enchantingoverhauled.lib.EnchantmentLib;
+import johnsmith.enchantingoverhauled.lib.EnchantmentOptions;
+import johnsmith.enchantingoverhauled.lib.EnchantmentTransaction;
+import johnsmith.enchantingoverhauled.lib.OptionFingerprint;
+import johnsmith.enchantingoverhauled.lib.TableSurvey;
+import johnsmith.enchantingoverhauled.lib.cache.EnchantmentIndex;
+import johnsmith.enchantingoverhauled.lib.cache.LevelRollTable;
+import johnsmith.enchantingoverhauled.lib.cache.ReloadableCache;
+import johnsmith.enchantingoverhauled.lib.cache.TableSurveyCache;
+import johnsmith.enchantingoverhauled.network.EnchantmentMenuStatePayload;
 import johnsmith.enchantingoverhauled.platform.Services;
 
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+
+import net.minecraft.Util;
 import net.minecraft.advancements.CriteriaTriggers;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Holder;
 import net.minecraft.core.RegistryAccess;
 import net.minecraft.core.component.DataComponents;
-import net.minecraft.core.registries.Registries;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.sounds.SoundEvents;
 import net.minecraft.sounds.SoundSource;
 import net.minecraft.stats.Stats;
-import net.minecraft.tags.BlockTags;
+import net.minecraft.util.Mth;
 import net.minecraft.util.RandomSource;
 import net.minecraft.world.Container;
 import net.minecraft.world.entity.player.Inventory;
@@ -28,7 +43,6 @@ import net.minecraft.world.item.Items;
 import net.minecraft.world.item.enchantment.Enchantment;
 import net.minecraft.world.item.enchantment.EnchantmentInstance;
 import net.minecraft.world.item.enchantment.ItemEnchantments;
-import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.EnchantingTableBlock;
 
 import org.jetbrains.annotations.NotNull;
@@ -42,6 +56,7 @@ import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Mixin to {@link EnchantmentMenu} to completely overhaul the enchanting system.
@@ -59,7 +74,9 @@ import java.util.*;
  * </li>
  * <li><b>Interaction Overhaul:</b> Clicking menu buttons now triggers specific actions (Upgrade/Transfer/Apply/Reroll)
  * instead of just applying a random set.</li>
- * <li><b>Synced Data:</b> Synchronizes the "source" of each enchantment option (Target vs Source vs Table) to the client for rendering.</li>
+ * <li><b>Synced Data:</b> Synchronizes the options, including the "source" of each (Target vs Source vs Table), to the client
+ * as a single delta-encoded {@link EnchantmentMenuStatePayload} instead of one data slot per value.</li>
+ * <li><b>Client Preview:</b> The client computes the options itself while waiting for the server's, which stay authoritative.</li>
  * </ul>
  */
 @Mixin(EnchantmentMenu.class)
@@ -151,31 +168,118 @@ public abstract class EnchantmentMenuMixin extends AbstractContainerMenu impleme
     // endregion
 
     // region New Fields
+    /** The number of background texture variants of each button type. */
     @Unique
-    private static final RandomSource TEXTURE_RANDOM = RandomSource.create();
+    private static final int TEXTURE_VARIANTS = 10;
 
     /**
      * Tracks the origin of the enchantment in the corresponding slot (0, 1, or 2).
      * The value corresponds to one of the static constants (NONE, TARGET, SOURCE, TABLE).
-     * This array is synced to the client via {@link #addAdditionalProperties}.
+     * This array is synced to the client as part of the packed menu state (see {@link #enchanting_overhauled$sendMenuState}).
      */
     @Unique
     public int[] enchanting_overhauled$enchantmentSources;
 
-    /** Tracks the random texture index (0-9) for the target button background. */
+    /** Tracks the texture index (0-9) for the target button background, derived from the enchantment seed. */
     @Unique
     public final int[] enchanting_overhauled$targetTextureIndices = new int[3];
 
-    /** Tracks the random texture index (0-9) for the source button background. */
+    /** Tracks the texture index (0-9) for the source button background, derived from the enchantment seed. */
     @Unique
     public final int[] enchanting_overhauled$sourceTextureIndices = new int[3];
 
-    /** Tracks the random texture index (0-9) for the table button background. */
+    /** Tracks the texture index (0-9) for the table button background, derived from the enchantment seed. */
     @Unique
     public final int[] enchanting_overhauled$tableTextureIndices = new int[3];
 
+    /** Whether the texture indices have been derived at least once. */
+    @Unique
+    private boolean enchanting_overhauled$hasTextureIndices;
+
+    /** The enchantment seed the texture indices were derived from. */
+    @Unique
+    private int enchanting_overhauled$textureSeed;
+
     /** The ID of the custom "Reroll" button. */
     @Unique private static final int REROLL_BUTTON_INDEX = 3;
+
+    /** The farthest distance at which a remembered table is assumed to be the one the menu belongs to. */
+    @Unique private static final double PREVIEW_TABLE_RANGE = 8.0D;
+
+    /** Server only: whether a slot changed since the options were last computed. */
+    @Unique
+    private boolean enchanting_overhauled$optionsDirty;
+
+    /** Incremented on every slot change; identifies the newest requested set of options. */
+    @Unique
+    private int enchanting_overhauled$optionRequest;
+
+    /** The request whose options are currently held in the synced fields. */
+    @Unique
+    private int enchanting_overhauled$committedOptionRequest;
+
+    /** The inputs of the newest requested set of options, or {@code null} if they must be recomputed. */
+    @Unique
+    private OptionFingerprint enchanting_overhauled$optionFingerprint;
+
+    /**
+     * Incremented by the server whenever the synced options become authoritative for the current slots.
+     * Sent with every packed menu state, where a change tells the client that a preview has been answered.
+     */
+    @Unique
+    private int enchanting_overhauled$optionRevision;
+
+    /** The synced option fields, viewed as {@link EnchantmentOptions}. */
+    @Unique
+    private EnchantmentOptions enchanting_overhauled$syncedOptions;
+
+    /** Client only: the table the options are previewed for, or {@link ContainerLevelAccess#NULL} if unknown. */
+    @Unique
+    private ContainerLevelAccess enchanting_overhauled$previewAccess = ContainerLevelAccess.NULL;
+
+    /** Client only: options computed locally for the current slots, or {@code null} if none are pending. */
+    @Unique
+    private EnchantmentOptions enchanting_overhauled$preview;
+
+    /** Client only: the value of {@link #enchanting_overhauled$optionRevision} when the preview was computed. */
+    @Unique
+    private int enchanting_overhauled$previewRevision;
+
+    /** The enchantment index last resolved by this menu, or {@code null} if none was resolved yet. */
+    @Unique
+    private EnchantmentIndex enchanting_overhauled$enchantmentIndex;
+
+    /** The registry access {@link #enchanting_overhauled$enchantmentIndex} was resolved from. */
+    @Unique
+    private RegistryAccess enchanting_overhauled$indexRegistryAccess;
+
+    /** The reload generation {@link #enchanting_overhauled$enchantmentIndex} was resolved in. */
+    @Unique
+    private int enchanting_overhauled$indexGeneration;
+
+    /**
+     * The arrays making up the packed menu state, in payload order. Each holds one entry per option slot
+     * ({@link EnchantmentLib#OPTION_COUNT}); entry {@code i} of the state is
+     * {@code stateFields[i / OPTION_COUNT][i % OPTION_COUNT]}.
+     */
+    @Unique
+    private int[][] enchanting_overhauled$stateFields;
+
+    /** The number of entries in the packed menu state, derived from {@link #enchanting_overhauled$stateFields}. */
+    @Unique
+    private int enchanting_overhauled$stateSize;
+
+    /** Server only: the player the packed menu state is sent to. */
+    @Unique
+    private ServerPlayer enchanting_overhauled$stateReceiver;
+
+    /** Server only: the packed menu state last sent to the client, or {@code null} if none was sent yet. */
+    @Unique
+    private int[] enchanting_overhauled$sentState;
+
+    /** Server only: the option revision last sent to the client. */
+    @Unique
+    private int enchanting_overhauled$sentRevision;
     // endregion
 
     // region Constructor
@@ -198,7 +302,8 @@ public abstract class EnchantmentMenuMixin extends AbstractContainerMenu impleme
      * <ol>
      * <li>Add the new {@link Slot} for the source item (inventory index 2, slot list index 38).</li>
      * <li>Initialize the {@link #enchanting_overhauled$enchantmentSources} array.</li>
-     * <li>Register the {@link #enchanting_overhauled$enchantmentSources} array elements as synced properties (DataSlots).</li>
+     * <li>Collect the option and texture arrays that make up the packed menu state.</li>
+     * <li>On the client, bind the option preview to the table the player just used.</li>
      * </ol>
      */
     @Inject(method = "<init>(ILnet/minecraft/world/entity/player/Inventory;Lnet/minecraft/world/inventory/ContainerLevelAccess;)V",
@@ -222,21 +327,42 @@ public abstract class EnchantmentMenuMixin extends AbstractContainerMenu impleme
                 EnchantmentSource.NONE.getId()
         };
 
-        // Add source array to synced data
-        this.addDataSlot(DataSlot.shared(this.enchanting_overhauled$enchantmentSources, 0));
-        this.addDataSlot(DataSlot.shared(this.enchanting_overhauled$enchantmentSources, 1));
-        this.addDataSlot(DataSlot.shared(this.enchanting_overhauled$enchantmentSources, 2));
-
-        // Add texture index properties to synced data
-        this.addDataSlot(DataSlot.shared(this.enchanting_overhauled$targetTextureIndices, 0));
-        this.addDataSlot(DataSlot.shared(this.enchanting_overhauled$targetTextureIndices, 1));
-        this.addDataSlot(DataSlot.shared(this.enchanting_overhauled$targetTextureIndices, 2));
-        this.addDataSlot(DataSlot.shared(this.enchanting_overhauled$sourceTextureIndices, 0));
-        this.addDataSlot(DataSlot.shared(this.enchanting_overhauled$sourceTextureIndices, 1));
-        this.addDataSlot(DataSlot.shared(this.enchanting_overhauled$sourceTextureIndices, 2));
-        this.addDataSlot(DataSlot.shared(this.enchanting_overhauled$tableTextureIndices, 0));
-        this.addDataSlot(DataSlot.shared(this.enchanting_overhauled$tableTextureIndices, 1));
-        this.addDataSlot(DataSlot.shared(this.enchanting_overhauled$tableTextureIndices, 2));
+        // Options are synced as one packed state, in this order
+        this.enchanting_overhauled$stateFields = new int[][]{
+                this.costs,
+                this.enchantClue,
+                this.levelClue,
+                this.enchanting_overhauled$enchantmentSources
+        };
+        this.enchanting_overhauled$stateSize = this.enchanting_overhauled$stateFields.length * EnchantmentLib.OPTION_COUNT;
+        if (playerInventory.player instanceof ServerPlayer serverPlayer) {
+            this.enchanting_overhauled$stateReceiver = serverPlayer;
+        }
+
+        this.enchanting_overhauled$syncedOptions = new EnchantmentOptions(
+                this.costs, this.enchantClue, this.levelClue, this.enchanting_overhauled$enchantmentSources);
+
+        // The client-side menu is created without level access; fall back to the table the player just used
+        Player player = playerInventory.player;
+        if (player.level().isClientSide()
+                && player instanceof LastEnchantingTableAccessor accessor
+                && accessor.enchanting_overhauled$getLastEnchantingTable() != null) {
+            BlockPos tablePos = accessor.enchanting_overhauled$getLastEnchantingTable();
+            if (tablePos.closerToCenterThan(player.position(), PREVIEW_TABLE_RANGE)) {
+                this.enchanting_overhauled$previewAccess = ContainerLevelAccess.create(player.level(), tablePos);
+            }
+        }
+    }
+
+    /**
+     * Keeps vanilla from registering data slots for the costs and clues, which are part of the packed
+     * menu state instead. Only the enchantment seed is still synced as a data slot.
+     */
+    @Redirect(method = "<init>(ILnet/minecraft/world/entity/player/Inventory;Lnet/minecraft/world/inventory/ContainerLevelAccess;)V",
+              at = @At(value = "INVOKE",
+                      target = "Lnet/minecraft/world/inventory/EnchantmentMenu;addDataSlot(Lnet/minecraft/world/inventory/DataSlot;)Lnet/minecraft/world/inventory/DataSlot;"))
+    private DataSlot skipOptionDataSlots(EnchantmentMenu instance, DataSlot dataSlot) {
+        return dataSlot == this.enchantmentSeed ? this.addDataSlot(dataSlot) : dataSlot;
     }
     // endregion
 
@@ -286,26 +412,6 @@ public abstract class EnchantmentMenuMixin extends AbstractContainerMenu impleme
         return HOTBAR_Y_POSITION;
     }
 
-    /**
-     * Helper method to generate a list of new, random enchantments for the target item.
-     * This implementation delegates to our custom {@link EnchantmentLib} to handle theme-based logic.
-     *
-     * @param enabledFeatures The feature set of the world.
-     * @param target The item to generate enchantments for.
-     * @param world The level (for accessing blocks/themes).
-     * @param pos The position of the table.
-     */
-    @Unique
-    private List<EnchantmentInstance> enchanting_overhauled$generateEnchantments(
-            FeatureFlagSet enabledFeatures,
-            ItemStack target,
-            Level world,
-            BlockPos pos
-    ) {
-        this.random.setSeed((long)(this.enchantmentSeed.get()));
-        // Use EnchantmentLib logic
-        return EnchantmentLib.generateEnchantments(enabledFeatures, this.random, target, false, world, pos);
-    }
     // endregion
 
     // region Update Data
@@ -313,9 +419,20 @@ public abstract class EnchantmentMenuMixin extends AbstractContainerMenu impleme
     /**
      * Overrides the default enchantment calculation logic.
      * <p>
-     * This method is called whenever the inventory changes. It calculates the enchanting power
-     * from nearby bookshelves (using custom logic) and then calls {@link #enchanting_overhauled$setDataSlots}
+     * This method is called whenever the inventory changes. It looks up the survey of the nearby power
+     * providers (see {@link TableSurveyCache}) and then calls {@link EnchantmentLib#computeOptions}
      * to populate the three enchantment options based on the new priority system.
+     * <p>
+     * If {@link Config#BINARY_ASYNC_OPTION_GENERATION} is enabled, the options are computed on a worker
+     * thread from a snapshot of the slots instead and committed on the server thread afterwards.
+     * <p>
+     * On the client, where the menu has no level access, the same computation runs against the table the
+     * player used (if {@link Config#BINARY_CLIENT_OPTION_PREVIEW} is enabled) and is displayed as a preview
+     * until the server's options arrive; see {@link #enchanting_overhauled$getDisplayedOptions()}.
+     * <p>
+     * On the server, the computation is deferred until the menu next broadcasts its changes, which vanilla
+     * does after handling each container packet and once per tick. All slot changes in between are
+     * evaluated together.
      *
      * @param inventory The inventory that changed.
      * @param ci Callback info (used to cancel the original method).
@@ -328,8 +445,35 @@ public abstract class EnchantmentMenuMixin extends AbstractContainerMenu impleme
             return;
         }
 
-        ItemStack target = inventory.getItem(0);
-        ItemStack source = inventory.getItem(2);
+        // On the server, defer to the next broadcast so that a burst of slot changes (e.g. a shift-click
+        // moving items into several slots) is evaluated once
+        if (this.enchanting_overhauled$stateReceiver != null) {
+            this.enchanting_overhauled$optionsDirty = true;
+        } else {
+            this.enchanting_overhauled$updateOptions();
+        }
+
+        ci.cancel(); // Cancel the original method
+    }
+
+    /**
+     * Recomputes the options for the current contents of the slots if a slot changed since they were last computed.
+     */
+    @Unique
+    private void enchanting_overhauled$flushOptions() {
+        if (this.enchanting_overhauled$optionsDirty) {
+            this.enchanting_overhauled$optionsDirty = false;
+            this.enchanting_overhauled$updateOptions();
+        }
+    }
+
+    /**
+     * Recomputes (or, on the client, previews) the options for the current contents of the slots.
+     */
+    @Unique
+    private void enchanting_overhauled$updateOptions() {
+        ItemStack target = this.enchantSlots.getItem(0);
+        ItemStack source = this.enchantSlots.getItem(2);
 
         // Invalid state: Target item is empty or not enchantable
         if (!(!target.isEmpty() && target.isEnchantable())) {
@@ -338,323 +482,188 @@ public abstract class EnchantmentMenuMixin extends AbstractContainerMenu impleme
                 this.enchantClue[i] = EnchantmentSource.NONE.getId();
                 this.levelClue[i] = EnchantmentSource.NONE.getId();
             }
-            ci.cancel();
+            // Any result still being computed for an earlier state of the slots is now stale
+            this.enchanting_overhauled$committedOptionRequest = ++this.enchanting_overhauled$optionRequest;
+            this.enchanting_overhauled$optionFingerprint = null;
+            this.enchanting_overhauled$preview = null;
+            this.access.execute((world, pos) -> ++this.enchanting_overhauled$optionRevision);
             return;
         }
 
         this.access.execute((world, pos) -> {
-            // 1. Calculate enchanting power (custom logic)
-            int power = 0;
-            for (BlockPos providerOffset : EnchantingTableBlock.BOOKSHELF_OFFSETS) {
-                // Check if transmitter (air) is valid tag.
-                // Note: Logic matches custom requirement where air blocks must be tagged.
-                if (world.getBlockState(
-                        pos.offset(
-                                providerOffset.getX() / 2,
-                                providerOffset.getY(),
-                                providerOffset.getZ() / 2
-                        )).is(BlockTags.ENCHANTMENT_POWER_TRANSMITTER)) {
-                    power += EnchantmentLib.getAgnosticEnchantingPower(world, pos.offset(providerOffset));
+            // 1. Survey the power providers (cached per table until a nearby block changes)
+            TableSurvey survey = TableSurveyCache.survey(world, pos);
+            int seed = this.enchantmentSeed.get();
+
+            // Skip the whole pipeline if the options (committed or pending) were computed from the same inputs,
+            // e.g. when only the lapis count changed or a container sync replays the slots
+            OptionFingerprint previous = this.enchanting_overhauled$optionFingerprint;
+            if (previous != null && previous.matches(target, source, seed, survey)) {
+                // Still answer the client's preview, unless the pending computation will
+                if (this.enchanting_overhauled$optionRequest == this.enchanting_overhauled$committedOptionRequest) {
+                    ++this.enchanting_overhauled$optionRevision;
                 }
+                return;
             }
+            this.enchanting_overhauled$optionFingerprint = OptionFingerprint.of(target, source, seed, survey);
 
-            // 2. Set base level requirements (vanilla-like calculation)
-            this.random.setSeed((long) this.enchantmentSeed.get());
+            // Any result still being computed for an earlier state of the slots is now stale
+            int request = ++this.enchanting_overhauled$optionRequest;
 
-            for (int j = 0; j < REROLL_BUTTON_INDEX; ++j) {
-                this.costs[j] = (25 - Math.min(power, 24)) * (j + 1);
-                this.enchantClue[j] = EnchantmentSource.NONE.getId();
-                this.levelClue[j] = EnchantmentSource.NONE.getId();
-                if (this.costs[j] < j + 1) {
-                    this.costs[j] = 0;
-                }
+            if (Config.BINARY_ASYNC_OPTION_GENERATION.get() && world instanceof ServerLevel serverLevel) {
+                this.enchanting_overhauled$computeOptionsAsync(serverLevel, target.copy(), source.copy(), survey, seed, request);
+                return;
             }
 
-            // 3. Populate enchantment options using the new priority logic
-            List<EnchantmentInstance> enchantments =
-                    this.enchanting_overhauled$setDataSlots(target, source, world.enabledFeatures(), world, pos);
-
-            // 4. Fill the synced arrays with data from the generated list
-            int slot = 0;
-            for (EnchantmentInstance entry : enchantments) {
-                // 1. Get the ID Map from the world's registry
-                var idMap = world.registryAccess().registryOrThrow(Registries.ENCHANTMENT).asHolderIdMap();
-                // 2. Get the ID from the Holder (EnchantmentInstance now holds a Holder<Enchantment>)
-                this.enchantClue[slot] = idMap.getId(entry.enchantment);
-                this.levelClue[slot] = entry.level;
-                ++slot;
-            }
+            this.enchanting_overhauled$commitOptions(request, EnchantmentLib.computeOptions(
+                    target, source, world.enabledFeatures(), world.registryAccess(), survey, seed, this.random));
+        });
 
-            // 4b. Set random texture indices for client rendering
-            for (int k = 0; k < REROLL_BUTTON_INDEX; ++k) {
-                this.enchanting_overhauled$targetTextureIndices[k] = TEXTURE_RANDOM.nextInt(10);
-                this.enchanting_overhauled$sourceTextureIndices[k] = TEXTURE_RANDOM.nextInt(10);
-                this.enchanting_overhauled$tableTextureIndices[k] = TEXTURE_RANDOM.nextInt(10);
+        this.enchanting_overhauled$previewAccess.execute((world, pos) -> {
+            if (!Config.BINARY_CLIENT_OPTION_PREVIEW.get() || !(world.getBlockState(pos).getBlock() instanceof EnchantingTableBlock)) {
+                return;
             }
 
-            this.broadcastChanges();
+            // Same inputs as on the server: the synced seed, the synced slots and the client's copy of the neighborhood
+            this.enchanting_overhauled$preview = EnchantmentLib.computeOptions(
+                    target, source, world.enabledFeatures(), world.registryAccess(),
+                    TableSurveyCache.survey(world, pos), this.enchantmentSeed.get(), this.random);
+            this.enchanting_overhauled$previewRevision = this.enchanting_overhauled$optionRevision;
         });
-
-        ci.cancel(); // Cancel the original method
     }
 
     /**
-     * Populates the three enchantment option slots based on a priority system:
-     * <ol>
-     * <li><b>Priority 1:</b> Existing enchantments on the {@code target} item (for upgrading).
-     * Sets source to {@link EnchantmentSource#TARGET}.</li>
-     * <li><b>Priority 2:</b> Enchantments from the {@code source} item (for transferring).
-     * Sets source to {@link EnchantmentSource#SOURCE}.</li>
-     * <li><b>Priority 3:</b> New enchantments generated from the table.
-     * Sets source to {@link EnchantmentSource#TABLE}.</li>
-     * </ol>
-     *
-     * @param target The item being enchanted.
-     * @param source The item in the source slot (e.g., book, tome).
-     * @param featureSet The world's enabled features.
-     * @return A list of {@link EnchantmentInstance}s, max size 3, to be displayed.
+     * Computes the enchantment options on a worker thread and commits them on the server thread.
+     * <p>
+     * The result is dropped if the slots changed again (or the menu was closed) in the meantime.
+     * Should the computation fail, the options are recomputed synchronously on the server thread.
      */
     @Unique
-    public List<EnchantmentInstance> enchanting_overhauled$setDataSlots(
+    private void enchanting_overhauled$computeOptionsAsync(
+            ServerLevel level,
             ItemStack target,
             ItemStack source,
-            FeatureFlagSet featureSet,
-            Level world,
-            BlockPos pos
+            TableSurvey survey,
+            int seed,
+            int request
     ) {
-        List<EnchantmentInstance> list = new ArrayList<>();
-        Set<Enchantment> addedEnchantments = new HashSet<>();
-
-        ItemStack curseFreeTarget = EnchantmentLib.removeCursesFrom(target);
-        int arraySize = this.costs.length; // Should be 3
-
-        // Reset all enchantment sources
-        for (int i = 0; i < arraySize; i++) {
-            this.enchanting_overhauled$enchantmentSources[i] = EnchantmentSource.NONE.getId();
-        }
-
-        // Priority 1: Add all the target's current enchantments
-        this.enchanting_overhauled$readEnchantmentsFromTarget(curseFreeTarget, list, arraySize, addedEnchantments);
-
-        // Priority 2: Check source item for any higher-level upgrades and overwrite
-        this.enchanting_overhauled$overwriteTargetEnchantmentsFromSource(target, source, list, addedEnchantments);
-
-        // Priority 3: Check source item for any *new* enchantments and append if space
-        this.enchanting_overhauled$appendSourceEnchantments(target, source, list, arraySize, addedEnchantments);
+        FeatureFlagSet featureSet = level.enabledFeatures();
+        RegistryAccess registryAccess = level.registryAccess();
+
+        CompletableFuture.supplyAsync(
+                () -> EnchantmentLib.computeOptions(target, source, featureSet, registryAccess, survey, seed, RandomSource.create()),
+                Util.backgroundExecutor()
+        ).whenComplete((options, error) -> level.getServer().execute(() -> {
+            if (request != this.enchanting_overhauled$optionRequest) {
+                return;
+            }
 
-        // Priority 4: Fill remaining slots from the table
-        this.enchanting_overhauled$generateEnchantmentsFromTable(target, featureSet, list, arraySize, world, pos);
+            EnchantmentOptions committed = options;
+            if (error != null) {
+                Constants.LOG.warn("Failed to compute enchantment options off-thread, retrying on the server thread", error);
+                committed = EnchantmentLib.computeOptions(target, source, featureSet, registryAccess, survey, seed, this.random);
+            }
+            this.enchanting_overhauled$commitOptions(request, committed);
 
-        return list;
+            // Nothing else broadcasts a result that arrives between ticks
+            this.broadcastChanges();
+        }));
     }
 
     /**
-     * Fills the enchantment list with existing enchantments from the target item.
+     * Copies computed options into the synced fields of the menu.
      * <p>
-     * This is Priority 1. These enchantments are added to the list first,
-     * and their source is marked as {@link EnchantmentSource#TARGET}.
+     * The fields are sent by the next {@link #broadcastChanges} (which computes synchronous options
+     * itself, see {@link #enchanting_overhauled$flushOptions}).
      *
-     * @param curseFreeTarget   The target item (with curses removed to prevent upgrading them).
-     * @param list              The master list of enchantments to populate.
-     * @param arraySize         The maximum number of slots (e.g., 3).
-     * @param addedEnchantments A set used to track added enchantments to prevent duplicates.
+     * @param request The slot change the options were computed for.
+     * @param options The computed options.
      */
     @Unique
-    private void enchanting_overhauled$readEnchantmentsFromTarget(
-            ItemStack curseFreeTarget,
-            List<EnchantmentInstance> list,
-            int arraySize,
-            Set<Enchantment> addedEnchantments
-    ) {
-        if (curseFreeTarget.isEnchanted()) {
-            ItemEnchantments enchants = EnchantmentLib.getEnchantments(curseFreeTarget);
-
-            for (var entry : enchants.entrySet()) {
-                if (list.size() >= arraySize) break; // Stop if slots are full
-
-                Holder<Enchantment> enchantment = entry.getKey();
-                int level = entry.getIntValue();
-
-                // Add to list, mark in set, and set source
-                list.add(new EnchantmentInstance(enchantment, level));
-                addedEnchantments.add(enchantment.value());
-                this.enchanting_overhauled$enchantmentSources[list.size() - 1] = EnchantmentSource.TARGET.getId();
-            }
-        }
+    private void enchanting_overhauled$commitOptions(int request, EnchantmentOptions options) {
+        System.arraycopy(options.costs(), 0, this.costs, 0, EnchantmentLib.OPTION_COUNT);
+        System.arraycopy(options.enchantClue(), 0, this.enchantClue, 0, EnchantmentLib.OPTION_COUNT);
+        System.arraycopy(options.levelClue(), 0, this.levelClue, 0, EnchantmentLib.OPTION_COUNT);
+        System.arraycopy(options.sources(), 0, this.enchanting_overhauled$enchantmentSources, 0, EnchantmentLib.OPTION_COUNT);
+        this.enchanting_overhauled$committedOptionRequest = request;
+        ++this.enchanting_overhauled$optionRevision;
     }
 
     /**
-     * Checks the source item for enchantments that are a higher level than
-     * enchantments already on the target item and overwrites them in the list.
-     * <p>
-     * This is Priority 2. It allows a source item to upgrade an existing
-     * enchantment even if all 3 slots are already full.
-     *
-     * @param target            The target item (for compatibility check).
-     * @param source            The source item.
-     * @param list              The master list (already populated with TARGET enchants).
-     * @param addedEnchantments The set of enchants already processed.
+     * Computes deferred options and sends the packed menu state along with vanilla's slot and data slot changes.
      */
-    @Unique
-    private void enchanting_overhauled$overwriteTargetEnchantmentsFromSource(
-            ItemStack target,
-            ItemStack source,
-            List<EnchantmentInstance> list,
-            Set<Enchantment> addedEnchantments
-    ) {
-        // Only proceed if a source item exists and target is not a book
-        if (source.isEmpty() || target.is(Items.BOOK)) {
-            return;
-        }
-
-        List<EnchantmentInstance> sourceEnchantments =
-                EnchantmentLib.getEnchantmentsAsList(EnchantmentLib.getEnchantments(source));
-
-        for (EnchantmentInstance sourceEntry : sourceEnchantments) {
-            Enchantment sourceEnchant = sourceEntry.enchantment.value();
-            int sourceLevel = sourceEntry.level;
-
-            // Only check enchantments that are already on the target
-            if (addedEnchantments.contains(sourceEnchant) && sourceEnchant.canEnchant(target)) {
-
-                // Find the matching enchantment in the list
-                for (int i = 0; i < list.size(); i++) {
-                    EnchantmentInstance targetEntry = list.get(i);
-                    if (targetEntry.enchantment.value().equals(sourceEnchant)) {
-                        int targetLevel = targetEntry.level;
-
-                        // If source is strictly higher, replace it in the list
-                        if (sourceLevel > targetLevel) {
-                            list.set(i, sourceEntry); // Replace with the source (higher level) entry
-                            this.enchanting_overhauled$enchantmentSources[i] = EnchantmentSource.SOURCE.getId();
-                        }
-                        break; // Found the matching enchant, move to the next source enchant
-                    }
-                }
-            }
-        }
+    @Override
+    public void broadcastChanges() {
+        this.enchanting_overhauled$flushOptions();
+        super.broadcastChanges();
+        this.enchanting_overhauled$sendMenuState(false);
     }
 
     /**
-     * Checks if a candidate enchantment is compatible with all enchantments currently in the selection list.
-     * This prevents mutually exclusive enchantments (like Sharpness/Smite or Protection/Blast Protection)
-     * from being offered if one is already present.
+     * Sends the full packed menu state along with vanilla's full resync (e.g. when the menu is opened).
      */
-    @Unique
-    private boolean enchanting_overhauled$isCompatibleWith(List<EnchantmentInstance> currentList, Holder<Enchantment> candidate) {
-        for (EnchantmentInstance instance : currentList) {
-            Holder<Enchantment> existing = instance.enchantment;
-            // Skip if it's the same enchantment (handled by duplication checks)
-            if (existing.equals(candidate)) continue;
-
-            // Check vanilla compatibility (tags/exclusive sets)
-            if (!Enchantment.areCompatible(candidate, existing)) {
-                return false;
-            }
-        }
-        return true;
+    @Override
+    public void sendAllDataToRemote() {
+        this.enchanting_overhauled$flushOptions();
+        super.sendAllDataToRemote();
+        this.enchanting_overhauled$sendMenuState(true);
     }
 
     /**
-     * Fills the *remaining* enchantment slots with *new*, applicable enchantments
-     * from the source item.
-     * <p>
-     * This is Priority 3. Enchantments are added only if they are compatible
-     * with the target item and have not already been added from the target itself.
-     * Their source is marked as {@link EnchantmentSource#SOURCE}.
+     * Sends the entries of the packed menu state that changed since the last payload, if any changed
+     * or the option revision moved on. Does nothing on the client.
      *
-     * @param target            The target item (used to check compatibility).
-     * @param source            The source item (e.g., Enchanted Book, Tome).
-     * @param list              The master list of enchantments to populate.
-     * @param arraySize         The maximum number of slots (e.g., 3).
-     * @param addedEnchantments A set used to track added enchantments to prevent duplicates.
+     * @param full Whether to send every entry regardless of the last payload.
      */
     @Unique
-    private void enchanting_overhauled$appendSourceEnchantments(
-            ItemStack target,
-            ItemStack source,
-            List<EnchantmentInstance> list,
-            int arraySize,
-            Set<Enchantment> addedEnchantments
-    ) {
-        // Only proceed if we have space, a source item exists, and target is not a book
-        if (list.size() >= arraySize || source.isEmpty() || target.is(Items.BOOK)) {
+    private void enchanting_overhauled$sendMenuState(boolean full) {
+        ServerPlayer receiver = this.enchanting_overhauled$stateReceiver;
+        if (receiver == null) {
             return;
         }
 
-        List<EnchantmentInstance> sourceEnchantments =
-                EnchantmentLib.getEnchantmentsAsList(EnchantmentLib.getEnchantments(source));
-
-        for (EnchantmentInstance entry : sourceEnchantments) {
-            if (list.size() >= arraySize) break; // Stop if slots are full
+        int[][] fields = this.enchanting_overhauled$stateFields;
+        int[] sent = this.enchanting_overhauled$sentState;
+        int revision = this.enchanting_overhauled$optionRevision;
+        boolean resend = full || sent == null;
 
-            Enchantment sourceEnchant = entry.enchantment.value();
+        int mask = 0;
+        for (int i = 0; i < this.enchanting_overhauled$stateSize; i++) {
+            if (resend || sent[i] != fields[i / EnchantmentLib.OPTION_COUNT][i % EnchantmentLib.OPTION_COUNT]) {
+                mask |= 1 << i;
+            }
+        }
+        if (mask == 0 && revision == this.enchanting_overhauled$sentRevision) {
+            return;
+        }
 
-            // Check if acceptable AND not already in the list (using the Set)
-            // .add() returns true if the item was successfully added (i.e., not a duplicate)
-            if (addedEnchantments.add(sourceEnchant)) {
-                if (sourceEnchant.canEnchant(target) && this.enchanting_overhauled$isCompatibleWith(list, entry.enchantment)) {
-                    list.add(entry);
-                    this.enchanting_overhauled$enchantmentSources[list.size() - 1] = EnchantmentSource.SOURCE.getId();
-                }
+        if (sent == null) {
+            sent = this.enchanting_overhauled$sentState = new int[this.enchanting_overhauled$stateSize];
+        }
+        int[] values = new int[Integer.bitCount(mask)];
+        int next = 0;
+        for (int i = 0; i < this.enchanting_overhauled$stateSize; i++) {
+            if ((mask & (1 << i)) != 0) {
+                int value = fields[i / EnchantmentLib.OPTION_COUNT][i % EnchantmentLib.OPTION_COUNT];
+                sent[i] = value;
+                values[next++] = value;
             }
         }
+        this.enchanting_overhauled$sentRevision = revision;
+
+        Services.PLATFORM.sendToPlayer(receiver, new EnchantmentMenuStatePayload(this.containerId, revision, mask, values));
     }
 
     /**
-     * Fills the remaining enchantment slots with newly generated enchantments from the table.
-     * <p>
-     * This is Priority 4. It uses the standard table logic (via EnchantmentLib) to
-     * generate potential enchantments, then fills any empty slots in our list,
-     * ensuring no duplicates are added.
+     * Discards any option computation still in flight once the menu is closed.
      */
-    @Unique
-    private void enchanting_overhauled$generateEnchantmentsFromTable(
-            ItemStack target,
-            FeatureFlagSet featureSet,
-            List<EnchantmentInstance> list,
-            int arraySize,
-            Level world,
-            BlockPos pos
-    ) {
-        // Only proceed if we have space
-        if (list.size() < arraySize) {
-            int slotToFill = list.size();
-
-            // Generate new enchantments from the table using custom logic
-            List<EnchantmentInstance> generated =
-                    this.enchanting_overhauled$generateEnchantments(featureSet, target, world, pos);
-
-            // Filter out enchantments that are already in our list
-            generated.removeIf(generatedEntry -> {
-                for (EnchantmentInstance existingEntry : list) {
-                    if (existingEntry.enchantment.equals(generatedEntry.enchantment)) {
-                        return true;
-                    }
-                }
-                return !this.enchanting_overhauled$isCompatibleWith(list, generatedEntry.enchantment);
-            });
-
-            int generatedIndex = 0;
-            for (int i = slotToFill; i < arraySize; i++) {
-                // Check if there are still unique, generated enchantments available
-                if (generatedIndex < generated.size()) {
-                    // Get the next available enchantment in order
-                    EnchantmentInstance candidate = generated.get(generatedIndex);
-                    generatedIndex++;
-
-                    // Add it to the list
-                    list.add(candidate);
-
-                    // Set the source ID for this slot
-                    this.enchanting_overhauled$enchantmentSources[i] = EnchantmentSource.TABLE.getId();
-                } else {
-                    // Stop filling if we run out of generated enchantments
-                    break;
-                }
-            }
-        }
+    @Inject(method = "removed", at = @At("HEAD"))
+    private void discardPendingOptions(Player player, CallbackInfo ci) {
+        this.enchanting_overhauled$optionsDirty = false;
+        ++this.enchanting_overhauled$optionRequest;
+        this.enchanting_overhauled$optionFingerprint = null;
     }
+
     // endregion
 
     // region Level calculation
@@ -663,36 +672,25 @@ public abstract class EnchantmentMenuMixin extends AbstractContainerMenu impleme
      * <p>
      * This uses a probabilistic system based on item enchantability. For each potential
      * level increase (up to the max), a "roll" is performed. A higher enchantability
-     * gives a higher chance of success for each roll.
+     * gives a higher chance of success for each roll. The chance per roll comes from the
+     * {@link johnsmith.enchantingoverhauled.api.enchantment.theme.roll.LevelRollCurve} of the
+     * enchantment's theme, and all rolls are resolved at once from its precomputed
+     * {@link LevelRollTable} with a single random draw.
      *
+     * @param index The enchantment index of the current registries.
      * @param target The item being enchanted.
      * @param enchantment The enchantment being upgraded.
      * @param currentLevel The current level of the enchantment.
      * @return The new, potentially higher, level.
      */
     @Unique
-    public int enchanting_overhauled$rollLevel(ItemStack target, Enchantment enchantment, int currentLevel) {
-        // 1. Clamp enchantability between 1 and 50.
-        int enchantability = Math.clamp(target.getItem().getEnchantmentValue(), 1, 50);
-
-        // 2. Calculate success probability.
-        // This scales enchantability (1-50) to a 0.0-1.0 range, then doubles its square
-        // to widen the gap between enchantability scores.
-        double successProbability = Math.clamp(2.0D * Math.pow(enchantability / 50.0D, 2.0D), 0.0D, 1.0D);
-
-        int newLevel = currentLevel;
-
-        // 3. Loop *while* we are below the max level.
-        while (newLevel < enchantment.getMaxLevel()) {
-            // 4. Roll the dice. A low roll (less than probability) is a success.
-            if (this.random.nextDouble() < successProbability) {
-                newLevel++; // Success, Try for next level
-            } else {
-                break; // Failure, stop trying and exit
-            }
-        }
-
-        return newLevel;
+    public int enchanting_overhauled$rollLevel(EnchantmentIndex index, ItemStack target, Holder<Enchantment> enchantment, int currentLevel) {
+        return index.getLevelRoll(enchantment).roll(
+                target.getItem().getEnchantmentValue(),
+                currentLevel,
+                enchantment.value().getMaxLevel(),
+                this.random
+        );
     }
     // endregion
 
@@ -712,6 +710,8 @@ public abstract class EnchantmentMenuMixin extends AbstractContainerMenu impleme
      * to reroll the enchantment options.</li>
      * <li><b>Invalid:</b> If none of the above, or costs are not met, do nothing.</li>
      * </ol>
+     * Options are applied to an {@link EnchantmentTransaction}, which is only committed to the slots
+     * (on the server) if the option was actually applied.
      *
      * @param player The player who clicked.
      * @param buttonId The ID of the button pressed (0-2 for options, 3 for reroll).
@@ -719,86 +719,49 @@ public abstract class EnchantmentMenuMixin extends AbstractContainerMenu impleme
      */
     @Inject(method = "clickMenuButton", at = @At("HEAD"), cancellable = true)
     public void clickMenuButton(Player player, int buttonId, CallbackInfoReturnable<Boolean> cir) {
+        // Evaluate slot changes that have not been broadcast yet, so the click is checked against the current slots
+        this.enchanting_overhauled$flushOptions();
+
+        // The displayed options belong to an earlier state of the slots while a computation is pending
+        // (options are only ever computed on the server, so the client never waits)
+        if (!player.level().isClientSide()
+                && this.enchanting_overhauled$optionRequest != this.enchanting_overhauled$committedOptionRequest) {
+            cir.setReturnValue(false);
+            return;
+        }
+
         ItemStack target = this.enchantSlots.getItem(0);
         ItemStack lapis = this.enchantSlots.getItem(1);
         ItemStack source = this.enchantSlots.getItem(2);
-        ItemStack curseFreeTarget = EnchantmentLib.removeCursesFrom(target);
-
-        int occupiedSlots = EnchantmentLib.getEnchantments(curseFreeTarget).size();
 
-        // 1. Get the ID Map from the player's level
-        RegistryAccess registryAccess = player.level().registryAccess();
-        var idMap = registryAccess.registryOrThrow(Registries.ENCHANTMENT).asHolderIdMap();
+        if (target.isEmpty() || !target.isEnchantable()) {
+            cir.setReturnValue(false);
+            return;
+        }
 
-        // 2. Resolve the Holder from the ID safely
-        Optional<Enchantment> enchantment = Optional.empty();
+        // 1. Get the enchantment index of the player's level
+        EnchantmentIndex index = this.enchanting_overhauled$getEnchantmentIndex(player.level().registryAccess());
 
-        if (buttonId < REROLL_BUTTON_INDEX) {
-            Holder<Enchantment> holder = idMap.byId(this.enchantClue[buttonId]);
-            if (holder != null) {
-                enchantment = Optional.of(holder.value());
+        // 2. Options: apply to a working copy (costs are checked by the handlers) and commit it if it succeeded
+        if (buttonId >= 0 && buttonId < REROLL_BUTTON_INDEX) {
+            EnchantmentTransaction transaction = new EnchantmentTransaction(target, lapis, source, player);
+            boolean applied = this.enchanting_overhauled$applyOption(index, buttonId, transaction) == EnchantmentTransaction.Outcome.APPLIED;
+            if (applied) {
+                this.enchanting_overhauled$commitTransaction(player, transaction);
             }
+            cir.setReturnValue(applied);
+            return;
         }
 
+        // 3. Reroll
+        int occupiedSlots = EnchantmentLib.getEnchantmentsWithoutCurses(target, index).size();
         int rerollCost = occupiedSlots + 1;
-        int buttonCost = enchantment.map(this::enchanting_overhauled$calculateEnchantmentCost).orElse(rerollCost);
-        int i = buttonId + 1;
-
-        // Invalid States / Cost Checks
         boolean isNotCreativePlayer = !player.getAbilities().instabuild;
-        boolean isNotEnchantableTarget = !target.isEnchantable();
-        boolean isTargetEmpty = target.isEmpty();
-
-        int currentLapis = lapis.getCount();
-        boolean isLapisInsufficient = currentLapis < buttonCost;
-        boolean isLevelInsufficient = buttonId < REROLL_BUTTON_INDEX
-                ? player.experienceLevel < this.costs[buttonId]
-                : player.experienceLevel < rerollCost;
-
-        if ((isNotCreativePlayer && (isLapisInsufficient || isLevelInsufficient))
-                || isTargetEmpty
-                || isNotEnchantableTarget
-        ) {
-            cir.setReturnValue(false);
-            return;
-        }
+        boolean isLapisInsufficient = lapis.getCount() < rerollCost;
+        boolean isLevelInsufficient = player.experienceLevel < rerollCost;
 
-        // Delegate to specific handlers
-        if (this.enchanting_overhauled$upgradeEnchantment(
-                registryAccess,
+        cir.setReturnValue(buttonId == REROLL_BUTTON_INDEX && this.enchanting_overhauled$rerollEnchantments(
                 player,
-                buttonId,
-                cir,
-                target,
-                isNotCreativePlayer,
-                lapis,
-                i
-        )) return;
-        if (this.enchanting_overhauled$transferEnchantment(
-                registryAccess,
-                player,
-                buttonId,
-                cir,
-                target,
-                source,
-                isNotCreativePlayer,
-                lapis,
-                i
-        )) return;
-        if (this.enchanting_overhauled$applyEnchantment(
-                registryAccess,
-                player,
-                buttonId,
-                cir,
-                target,
-                isNotCreativePlayer,
-                lapis,
-                i
-        )) return;
-        if (this.enchanting_overhauled$rerollEnchantments(
-                player,
-                buttonId,
-                cir,
                 target,
                 occupiedSlots,
                 isLapisInsufficient,
@@ -806,271 +769,219 @@ public abstract class EnchantmentMenuMixin extends AbstractContainerMenu impleme
                 isNotCreativePlayer,
                 lapis,
                 rerollCost
-        )) return;
+        ));
+    }
 
-        // Fallthrough (Invalid Click)
-        cir.setReturnValue(false);
+    /**
+     * Applies a single option button to a transaction through the upgrade, transfer and apply handlers.
+     *
+     * @return {@link EnchantmentTransaction.Outcome#APPLIED} if the option was applied, otherwise why it was not.
+     */
+    @Unique
+    private EnchantmentTransaction.Outcome enchanting_overhauled$applyOption(
+            EnchantmentIndex index,
+            int buttonId,
+            EnchantmentTransaction transaction
+    ) {
+        EnchantmentTransaction.Outcome outcome = this.enchanting_overhauled$upgradeEnchantment(index, buttonId, transaction);
+        if (outcome == EnchantmentTransaction.Outcome.PASS) {
+            outcome = this.enchanting_overhauled$transferEnchantment(index, buttonId, transaction);
+        }
+        if (outcome == EnchantmentTransaction.Outcome.PASS) {
+            outcome = this.enchanting_overhauled$applyEnchantment(index, buttonId, transaction);
+        }
+        return outcome;
     }
 
     /**
      * Handles the logic for upgrading an existing enchantment on the target item.
      * Triggered when the clicked slot's source is {@link EnchantmentSource#TARGET}.
      *
-     * @return true if the click was handled (or explicitly ignored as invalid), false otherwise.
+     * @return {@code PASS} if the option is not an upgrade, {@code REJECTED} if it is maxed out or
+     *         unaffordable, {@code APPLIED} otherwise.
      */
     @Unique
-    private boolean enchanting_overhauled$upgradeEnchantment(
-            RegistryAccess registryAccess,
-            Player player,
+    private EnchantmentTransaction.Outcome enchanting_overhauled$upgradeEnchantment(
+            EnchantmentIndex index,
             int buttonId,
-            CallbackInfoReturnable<Boolean> cir,
-            ItemStack target,
-            boolean isNotCreativePlayer,
-            ItemStack lapis,
-            int i
+            EnchantmentTransaction transaction
     ) {
-        boolean isUpgradeButton = buttonId < REROLL_BUTTON_INDEX
-                && this.enchanting_overhauled$enchantmentSources[buttonId] == EnchantmentSource.TARGET.getId();
-
-        if (isUpgradeButton) {
-            // 1. Get the ID Map (you are inside access.execute, so you have 'world')
-            var idMap = registryAccess.registryOrThrow(Registries.ENCHANTMENT).asHolderIdMap();
-
-            // 2. Resolve
-            Holder<Enchantment> enchantment = idMap.byId(this.enchantClue[buttonId]);
-            if (enchantment == null) return false;
-            int currentLevel = this.levelClue[buttonId]; // Get CURRENT level
-
-            // Exit if enchantment is already at max level
-            if (currentLevel >= enchantment.value().getMaxLevel()) {
-                cir.setReturnValue(false);
-                return true; // Action was "handled" by doing nothing
-            }
-
-            this.access.execute((world, pos) -> {
-                // Calculate the new level. Calling with currentLevel + 1
-                // guarantees an increase of at least one level, with a
-                // chance to roll for more via rollLevel's logic.
-                int newLevel = this.enchanting_overhauled$rollLevel(target, enchantment.value(), currentLevel + 1);
-
-                // Create a new component builder from the existing enchantments
-                ItemEnchantments.Mutable builder = new ItemEnchantments.Mutable(EnchantmentLib.getEnchantments(target));
-                builder.set(enchantment, newLevel);
-                target.set(DataComponents.ENCHANTMENTS, builder.toImmutable());
-
-                // Apply costs
-                int experienceLevelCost = this.enchanting_overhauled$calculateEnchantmentCost(enchantment.value());
-                player.onEnchantmentPerformed(target, isNotCreativePlayer ? experienceLevelCost : 0);
-
-                if (isNotCreativePlayer) {
-                    lapis.shrink(i); // Upgrade Lapis cost uses 'i' (buttonId + 1)
-                    if (lapis.isEmpty()) {
-                        this.enchantSlots.setItem(1, ItemStack.EMPTY);
-                    }
-                }
+        if (this.enchanting_overhauled$enchantmentSources[buttonId] != EnchantmentSource.TARGET.getId()) {
+            return EnchantmentTransaction.Outcome.PASS;
+        }
 
-                // Stats, criteria, and client/sound updates
-                player.awardStat(Stats.ENCHANT_ITEM);
-                if (player instanceof ServerPlayer serverPlayer) {
-                    CriteriaTriggers.ENCHANTED_ITEM.trigger(serverPlayer, target, i);
-                }
+        // Resolve through the menu's cached enchantment index
+        Holder<Enchantment> enchantment = index.byId(this.enchantClue[buttonId]);
+        if (enchantment == null) {
+            return EnchantmentTransaction.Outcome.REJECTED;
+        }
+        int currentLevel = this.levelClue[buttonId]; // Get CURRENT level
 
-                this.enchantSlots.setChanged();
-                this.enchantmentSeed.set(player.getEnchantmentSeed());
-                this.slotsChanged(this.enchantSlots); // Refresh enchantment options
-                world.playSound(
-                        null,
-                        pos,
-                        SoundEvents.ENCHANTMENT_TABLE_USE,
-                        SoundSource.BLOCKS,
-                        1.0F,
-                        world.random.nextFloat() * 0.1F + 0.9F
-                );
-            });
+        // Exit if enchantment is already at max level
+        if (currentLevel >= enchantment.value().getMaxLevel()) {
+            return EnchantmentTransaction.Outcome.REJECTED;
+        }
 
-            cir.setReturnValue(true);
-            return true;
+        int experienceLevelCost = this.enchanting_overhauled$calculateEnchantmentCost(enchantment.value());
+        if (!transaction.canAfford(experienceLevelCost, this.costs[buttonId])) {
+            return EnchantmentTransaction.Outcome.REJECTED;
         }
-        return false;
+
+        // Calculate the new level. Calling with currentLevel + 1
+        // guarantees an increase of at least one level, with a
+        // chance to roll for more via rollLevel's logic.
+        ItemStack target = transaction.getTarget();
+        int newLevel = this.enchanting_overhauled$rollLevel(index, target, enchantment, currentLevel + 1);
+
+        // Create a new component builder from the existing enchantments
+        ItemEnchantments.Mutable builder = new ItemEnchantments.Mutable(EnchantmentLib.getEnchantments(target));
+        builder.set(enchantment, newLevel);
+        target.set(DataComponents.ENCHANTMENTS, builder.toImmutable());
+
+        // Upgrade Lapis cost uses the button number (buttonId + 1)
+        transaction.charge(buttonId + 1, experienceLevelCost, buttonId + 1);
+        transaction.markPerformed();
+        return EnchantmentTransaction.Outcome.APPLIED;
     }
 
     /**
      * Handles the logic for transferring an enchantment from the source item.
      * Triggered when the clicked slot's source is {@link EnchantmentSource#SOURCE}.
      *
-     * @return true if the click was handled, false otherwise.
+     * @return {@code PASS} if the option is not a transfer, {@code REJECTED} if it is unaffordable or the
+     *         source was already consumed, {@code APPLIED} otherwise.
      */
     @Unique
-    private boolean enchanting_overhauled$transferEnchantment(
-            RegistryAccess registryAccess,
-            Player player,
+    private EnchantmentTransaction.Outcome enchanting_overhauled$transferEnchantment(
+            EnchantmentIndex index,
             int buttonId,
-            CallbackInfoReturnable<Boolean> cir,
-            ItemStack target,
-            ItemStack source,
-            boolean isNotCreativePlayer,
-            ItemStack lapis,
-            int i
+            EnchantmentTransaction transaction
     ) {
-        boolean isTransferButton = buttonId < REROLL_BUTTON_INDEX
-                && this.enchanting_overhauled$enchantmentSources[buttonId] == EnchantmentSource.SOURCE.getId();
-
-        if (isTransferButton) {
-            this.access.execute((world, pos) -> {
-                ItemStack targetCopy = target;
-
-                // 1. Get the ID Map (you are inside access.execute, so you have 'world')
-                var idMap = registryAccess.registryOrThrow(Registries.ENCHANTMENT).asHolderIdMap();
-
-                // 2. Resolve
-                Holder<Enchantment> enchantment = idMap.byId(this.enchantClue[buttonId]);
-                if (enchantment == null) return;
-                int currentLevel = this.levelClue[buttonId]; // Get CURRENT level
-
-                // Roll for the final level
-                int level = this.enchanting_overhauled$rollLevel(target, enchantment.value(), this.levelClue[buttonId]);
-
-                boolean isTargetBook = target.is(Items.BOOK);
-                boolean isSourcePersistent = source.is(Services.PLATFORM.getEnchantedTome());
-
-                // If enchanting a book, swap it for an enchanted book
-                if (isTargetBook) {
-                    targetCopy = new ItemStack(Items.ENCHANTED_BOOK);
-                    targetCopy.setCount(1);
-                    this.enchantSlots.setItem(0, targetCopy);
-                }
+        if (this.enchanting_overhauled$enchantmentSources[buttonId] != EnchantmentSource.SOURCE.getId()) {
+            return EnchantmentTransaction.Outcome.PASS;
+        }
 
-                // Apply the new enchantment
-                targetCopy.enchant(enchantment, level);
+        // Resolve through the menu's cached enchantment index
+        Holder<Enchantment> enchantment = index.byId(this.enchantClue[buttonId]);
+        if (enchantment == null || transaction.isSourceConsumed()
+                || this.enchanting_overhauled$conflictsWithTarget(index, enchantment, transaction)) {
+            return EnchantmentTransaction.Outcome.REJECTED;
+        }
 
-                // Apply costs
-                int experienceCost = this.enchanting_overhauled$calculateEnchantmentCost(enchantment.value());
-                if (isNotCreativePlayer) {
-                    player.onEnchantmentPerformed(target, experienceCost);
-                    lapis.shrink(experienceCost);
-                    if (lapis.isEmpty()) {
-                        this.enchantSlots.setItem(1, ItemStack.EMPTY);
-                    }
-                    // If the enchantment came from the source slot, consume the source item
-                    // unless it is a persistent item (like the custom Tome)
-                    if (!isSourcePersistent) {
-                        this.enchantSlots.setItem(2, new ItemStack(Items.BOOK));
-                    }
-                }
+        int experienceCost = this.enchanting_overhauled$calculateEnchantmentCost(enchantment.value());
+        if (!transaction.canAfford(experienceCost, this.costs[buttonId])) {
+            return EnchantmentTransaction.Outcome.REJECTED;
+        }
 
-                // Stats, criteria, and client/sound updates
-                player.awardStat(Stats.ENCHANT_ITEM);
-                if (player instanceof ServerPlayer serverPlayer) {
-                    CriteriaTriggers.ENCHANTED_ITEM.trigger(serverPlayer, target, i);
-                }
+        // Roll for the final level, then apply it (a plain book becomes an enchanted book)
+        int level = this.enchanting_overhauled$rollLevel(index, transaction.getTarget(), enchantment, this.levelClue[buttonId]);
+        transaction.enchant(enchantment, level);
+        transaction.charge(experienceCost, experienceCost, buttonId + 1);
 
-                this.enchantSlots.setChanged();
-                this.enchantmentSeed.set(player.getEnchantmentSeed());
-                this.slotsChanged(this.enchantSlots);
-                world.playSound(
-                        null,
-                        pos,
-                        SoundEvents.ENCHANTMENT_TABLE_USE,
-                        SoundSource.BLOCKS,
-                        1.0F,
-                        world.random.nextFloat() * 0.1F + 0.9F
-                );
-            });
-
-            cir.setReturnValue(true);
-            return true;
+        // Consume the source item unless it is a persistent item (like the custom Tome)
+        if (!transaction.getSource().is(Services.PLATFORM.getEnchantedTome())) {
+            transaction.consumeSource();
         }
-        return false;
+        return EnchantmentTransaction.Outcome.APPLIED;
     }
 
     /**
      * Handles the logic for applying a new, table-generated enchantment.
      * Triggered when the clicked slot's source is {@link EnchantmentSource#TABLE}.
      *
-     * @return true if the click was handled, false otherwise.
+     * @return {@code PASS} if the option is not table-generated, {@code REJECTED} if it is unaffordable,
+     *         {@code APPLIED} otherwise.
      */
     @Unique
-    private boolean enchanting_overhauled$applyEnchantment(
-            RegistryAccess registryAccess,
-            Player player,
+    private EnchantmentTransaction.Outcome enchanting_overhauled$applyEnchantment(
+            EnchantmentIndex index,
             int buttonId,
-            CallbackInfoReturnable<Boolean> cir,
-            ItemStack target,
-            boolean isNotCreativePlayer,
-            ItemStack lapis,
-            int i
+            EnchantmentTransaction transaction
     ) {
-        boolean isApplyButton = buttonId < REROLL_BUTTON_INDEX
-                && this.enchanting_overhauled$enchantmentSources[buttonId] == EnchantmentSource.TABLE.getId();
-
-        if (isApplyButton) {
-            this.access.execute((world, pos) -> {
-                ItemStack targetCopy = target;
-
-                // 1. Get the ID Map (you are inside access.execute, so you have 'world')
-                var idMap = registryAccess.registryOrThrow(Registries.ENCHANTMENT).asHolderIdMap();
-
-                // 2. Resolve
-                Holder<Enchantment> enchantment = idMap.byId(this.enchantClue[buttonId]);
-                if (enchantment == null) return;
-                int currentLevel = this.levelClue[buttonId]; // Get CURRENT level
-
+        if (this.enchanting_overhauled$enchantmentSources[buttonId] != EnchantmentSource.TABLE.getId()) {
+            return EnchantmentTransaction.Outcome.PASS;
+        }
 
-                int level = this.enchanting_overhauled$rollLevel(target, enchantment.value(), this.levelClue[buttonId]);
-                boolean isTargetBook = target.is(Items.BOOK);
+        // Resolve through the menu's cached enchantment index
+        Holder<Enchantment> enchantment = index.byId(this.enchantClue[buttonId]);
+        if (enchantment == null || this.enchanting_overhauled$conflictsWithTarget(index, enchantment, transaction)) {
+            return EnchantmentTransaction.Outcome.REJECTED;
+        }
 
-                if (isTargetBook) {
-                    targetCopy = new ItemStack(Items.ENCHANTED_BOOK);
-                    targetCopy.setCount(1);
-                    this.enchantSlots.setItem(0, targetCopy);
-                }
+        int experienceCost = this.enchanting_overhauled$calculateEnchantmentCost(enchantment.value());
+        if (!transaction.canAfford(experienceCost, this.costs[buttonId])) {
+            return EnchantmentTransaction.Outcome.REJECTED;
+        }
 
-                targetCopy.enchant(enchantment, level);
+        int level = this.enchanting_overhauled$rollLevel(index, transaction.getTarget(), enchantment, this.levelClue[buttonId]);
+        transaction.enchant(enchantment, level);
+        transaction.charge(experienceCost, experienceCost, buttonId + 1);
+        return EnchantmentTransaction.Outcome.APPLIED;
+    }
 
-                int experienceCost = this.enchanting_overhauled$calculateEnchantmentCost(enchantment.value());
-                if (isNotCreativePlayer) {
-                    player.onEnchantmentPerformed(target, experienceCost);
-                    lapis.shrink(experienceCost);
-                    if (lapis.isEmpty()) {
-                        this.enchantSlots.setItem(1, ItemStack.EMPTY);
-                    }
-                }
+    /**
+     * Checks whether an enchantment conflicts with one already on the transaction's target, e.g. with a
+     * table option applied earlier in the same batch (table options are not filtered against each other).
+     */
+    @Unique
+    private boolean enchanting_overhauled$conflictsWithTarget(
+            EnchantmentIndex index,
+            Holder<Enchantment> enchantment,
+            EnchantmentTransaction transaction
+    ) {
+        List<EnchantmentInstance> current = new ArrayList<>();
+        for (Object2IntMap.Entry<Holder<Enchantment>> entry : EnchantmentLib.getEnchantments(transaction.getTarget()).entrySet()) {
+            current.add(new EnchantmentInstance(entry.getKey(), entry.getIntValue()));
+        }
+        return index.conflictsWith(enchantment, index.toIdSet(current));
+    }
 
-                player.awardStat(Stats.ENCHANT_ITEM);
-                if (player instanceof ServerPlayer serverPlayer) {
-                    CriteriaTriggers.ENCHANTED_ITEM.trigger(serverPlayer, target, i);
-                }
+    /**
+     * Writes a transaction back into the slots and charges the player, once per click or batch.
+     * Does nothing on the client, where clicks are only checked.
+     */
+    @Unique
+    private void enchanting_overhauled$commitTransaction(Player player, EnchantmentTransaction transaction) {
+        this.access.execute((world, pos) -> {
+            ItemStack target = transaction.getTarget();
+            this.enchantSlots.setItem(0, target);
+            this.enchantSlots.setItem(1, transaction.getLapis());
+            this.enchantSlots.setItem(2, transaction.getSource());
+
+            // Apply costs (in creative mode, only upgrades notify the player)
+            if (transaction.isPerformed()) {
+                player.onEnchantmentPerformed(target, transaction.getExperienceCost());
+            }
 
-                this.enchantSlots.setChanged();
-                this.enchantmentSeed.set(player.getEnchantmentSeed());
-                this.slotsChanged(this.enchantSlots);
-                world.playSound(
-                        null,
-                        pos,
-                        SoundEvents.ENCHANTMENT_TABLE_USE,
-                        SoundSource.BLOCKS,
-                        1.0F,
-                        world.random.nextFloat() * 0.1F + 0.9F
-                );
-            });
+            // Stats, criteria, and client/sound updates
+            player.awardStat(Stats.ENCHANT_ITEM);
+            if (player instanceof ServerPlayer serverPlayer) {
+                CriteriaTriggers.ENCHANTED_ITEM.trigger(serverPlayer, target, transaction.getCriterionLevels());
+            }
 
-            cir.setReturnValue(true);
-            return true;
-        }
-        return false;
+            this.enchantSlots.setChanged();
+            this.enchantmentSeed.set(player.getEnchantmentSeed());
+            this.slotsChanged(this.enchantSlots); // Refresh enchantment options
+            world.playSound(
+                    null,
+                    pos,
+                    SoundEvents.ENCHANTMENT_TABLE_USE,
+                    SoundSource.BLOCKS,
+                    1.0F,
+                    world.random.nextFloat() * 0.1F + 0.9F
+            );
+        });
     }
 
     /**
      * Handles the logic for rerolling the available enchantments.
      * Triggered when the clicked slot is {@link #REROLL_BUTTON_INDEX}.
      *
-     * @return true if the click was handled, false otherwise.
+     * @return true if the options were rerolled, false otherwise.
      */
     @Unique
     private boolean enchanting_overhauled$rerollEnchantments(
             Player player,
-            int buttonId,
-            CallbackInfoReturnable<Boolean> cir,
             ItemStack target,
             int occupiedSlots,
             boolean isLapisInsufficient,
@@ -1079,7 +990,6 @@ public abstract class EnchantmentMenuMixin extends AbstractContainerMenu impleme
             ItemStack lapis,
             int rerollCost
     ) {
-        boolean isRerollButton = buttonId == REROLL_BUTTON_INDEX;
         boolean targetIsEmpty = target.isEmpty();
         boolean targetIsEnchantable = !targetIsEmpty && (target.is(Items.BOOK) || target.isEnchantable());
         // Logic to determine if a reroll is allowed
@@ -1093,7 +1003,7 @@ public abstract class EnchantmentMenuMixin extends AbstractContainerMenu impleme
                 && hasTableSource;
         boolean canAfford = !((isLapisInsufficient || isLevelInsufficient) && isNotCreativePlayer);
 
-        if (isRerollButton && canReroll && canAfford) {
+        if (canReroll && canAfford) {
             this.access.execute((world, pos) -> {
                 if (isNotCreativePlayer) {
                     lapis.shrink(rerollCost);
@@ -1116,12 +1026,60 @@ public abstract class EnchantmentMenuMixin extends AbstractContainerMenu impleme
                         world.random.nextFloat() * 0.1F + 0.9F
                 );
             });
-
-            cir.setReturnValue(true);
             return true;
         }
         return false;
     }
+
+    /**
+     * Applies several option buttons in order as a single action.
+     * <p>
+     * The buttons are applied one after another to the same {@link EnchantmentTransaction}, through the
+     * regular upgrade, transfer and apply handlers and against the unchanged options of the batch, so each
+     * button is checked against what the earlier buttons left: its costs, whether the target is still
+     * enchantable (a book stops being one once enchanted) and whether it conflicts with enchantments added
+     * earlier in the batch. Only if every button applied is the
+     * transaction committed, which writes the slots back, charges the player and recomputes the options once.
+     * Rerolls are not allowed in a batch.
+     */
+    @Unique
+    @Override
+    public boolean enchanting_overhauled$clickMenuButtons(Player player, int[] buttonIds) {
+        this.enchanting_overhauled$flushOptions();
+        if (buttonIds.length == 0
+                || (!player.level().isClientSide()
+                        && this.enchanting_overhauled$optionRequest != this.enchanting_overhauled$committedOptionRequest)) {
+            return false;
+        }
+
+        ItemStack target = this.enchantSlots.getItem(0);
+        if (target.isEmpty() || !target.isEnchantable()) {
+            return false;
+        }
+
+        EnchantmentIndex index = this.enchanting_overhauled$getEnchantmentIndex(player.level().registryAccess());
+        EnchantmentTransaction transaction = new EnchantmentTransaction(
+                target, this.enchantSlots.getItem(1), this.enchantSlots.getItem(2), player);
+        boolean[] seen = new boolean[REROLL_BUTTON_INDEX];
+
+        for (int buttonId : buttonIds) {
+            if (buttonId < 0 || buttonId >= REROLL_BUTTON_INDEX || seen[buttonId]) {
+                return false;
+            }
+            seen[buttonId] = true;
+
+            // Like a single click, which is refused once a book target has become an enchanted book
+            if (!transaction.getTarget().isEnchantable()) {
+                return false;
+            }
+            if (this.enchanting_overhauled$applyOption(index, buttonId, transaction) != EnchantmentTransaction.Outcome.APPLIED) {
+                return false;
+            }
+        }
+
+        this.enchanting_overhauled$commitTransaction(player, transaction);
+        return true;
+    }
     // endregion
 
     // region Inventory handling
@@ -1232,24 +1190,114 @@ public abstract class EnchantmentMenuMixin extends AbstractContainerMenu impleme
         return this.enchanting_overhauled$enchantmentSources;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The preview is dropped as soon as the server has answered the slot change it was computed for,
+     * which corrects any mismatch (e.g. block entity contents the client does not know about).
+     */
+    @Override
+    public EnchantmentOptions enchanting_overhauled$getDisplayedOptions() {
+        EnchantmentOptions preview = this.enchanting_overhauled$preview;
+        if (preview != null && this.enchanting_overhauled$previewRevision != this.enchanting_overhauled$optionRevision) {
+            if (!preview.matches(this.enchanting_overhauled$syncedOptions)) {
+                Constants.LOG.debug("Enchantment option preview differed from the server's options and was replaced");
+            }
+            this.enchanting_overhauled$preview = preview = null;
+        }
+        return preview != null ? preview : this.enchanting_overhauled$syncedOptions;
+    }
+
+    @Unique
+    @Override
+    public void enchanting_overhauled$applyMenuState(EnchantmentMenuStatePayload payload) {
+        int[][] fields = this.enchanting_overhauled$stateFields;
+        int[] values = payload.values();
+        int next = 0;
+        for (int i = 0; i < this.enchanting_overhauled$stateSize && next < values.length; i++) {
+            if ((payload.mask() & (1 << i)) != 0) {
+                fields[i / EnchantmentLib.OPTION_COUNT][i % EnchantmentLib.OPTION_COUNT] = values[next++];
+            }
+        }
+        this.enchanting_overhauled$optionRevision = payload.revision();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The index is resolved again only when the registry access changes or data is reloaded
+     * (see {@link ReloadableCache#generation()}).
+     */
+    @Unique
+    @Override
+    public EnchantmentIndex enchanting_overhauled$getEnchantmentIndex(RegistryAccess registryAccess) {
+        int generation = ReloadableCache.generation();
+        EnchantmentIndex index = this.enchanting_overhauled$enchantmentIndex;
+
+        if (index == null
+                || this.enchanting_overhauled$indexRegistryAccess != registryAccess
+                || this.enchanting_overhauled$indexGeneration != generation) {
+            index = EnchantmentIndex.get(registryAccess);
+            this.enchanting_overhauled$enchantmentIndex = index;
+            this.enchanting_overhauled$indexRegistryAccess = registryAccess;
+            this.enchanting_overhauled$indexGeneration = generation;
+        }
+        return index;
+    }
+
     @Unique
     @Override
     public int[] enchanting_overhauled$getTargetTextureIndices() {
+        this.enchanting_overhauled$updateTextureIndices();
         return this.enchanting_overhauled$targetTextureIndices;
     }
 
     @Unique
     @Override
     public int[] enchanting_overhauled$getSourceTextureIndices() {
+        this.enchanting_overhauled$updateTextureIndices();
         return this.enchanting_overhauled$sourceTextureIndices;
     }
 
     @Unique
     @Override
     public int[] enchanting_overhauled$getTableTextureIndices() {
+        this.enchanting_overhauled$updateTextureIndices();
         return this.enchanting_overhauled$tableTextureIndices;
     }
 
+    /**
+     * Derives the button texture indices from the synced enchantment seed, so they stay the same
+     * for as long as the seed does and never have to be synced themselves.
+     */
+    @Unique
+    private void enchanting_overhauled$updateTextureIndices() {
+        int seed = this.enchantmentSeed.get();
+        if (this.enchanting_overhauled$hasTextureIndices && this.enchanting_overhauled$textureSeed == seed) {
+            return;
+        }
+
+        for (int k = 0; k < REROLL_BUTTON_INDEX; ++k) {
+            this.enchanting_overhauled$targetTextureIndices[k] = enchanting_overhauled$textureIndex(seed, 3 * k);
+            this.enchanting_overhauled$sourceTextureIndices[k] = enchanting_overhauled$textureIndex(seed, 3 * k + 1);
+            this.enchanting_overhauled$tableTextureIndices[k] = enchanting_overhauled$textureIndex(seed, 3 * k + 2);
+        }
+        this.enchanting_overhauled$textureSeed = seed;
+        this.enchanting_overhauled$hasTextureIndices = true;
+    }
+
+    /**
+     * Hashes the enchantment seed and a button's salt into a texture index.
+     *
+     * @param seed The enchantment seed.
+     * @param salt A distinct value per button type and option index.
+     * @return A texture index from 0 (inclusive) to {@link #TEXTURE_VARIANTS} (exclusive).
+     */
+    @Unique
+    private static int enchanting_overhauled$textureIndex(int seed, int salt) {
+        return Math.floorMod(Mth.murmurHash3Mixer(seed * 31 + salt), TEXTURE_VARIANTS);
+    }
+
     /**
      * {@inheritDoc}
      * <p>
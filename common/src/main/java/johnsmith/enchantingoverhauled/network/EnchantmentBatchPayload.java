@@ -0,0 +1,68 @@
+package johnsmith.enchantingoverhauled.network;
+
+import johnsmith.enchantingoverhauled.Constants;
+import johnsmith.enchantingoverhauled.accessor.EnchantmentMenuAccessor;
+
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.network.codec.StreamCodec;
+import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.entity.player.Player;
+
+/**
+ * Client-to-server payload that selects several enchantment options of an open enchanting menu at once.
+ * <p>
+ * The options are applied in the given order as one action: either all of them apply or none does,
+ * and the options are recomputed only once afterwards, instead of one round trip and one
+ * recomputation per clicked button. Sent by the enchanting screen when an option is shift-clicked.
+ *
+ * @param containerId The id of the menu the options belong to.
+ * @param buttonIds   The option buttons to apply, in order (each 0-2, at most three).
+ */
+public record EnchantmentBatchPayload(
+        int containerId,
+        int[] buttonIds
+) implements CustomPacketPayload {
+
+    /**
+     * The largest number of buttons in one batch (one per option slot).
+     */
+    public static final int MAX_BUTTONS = 3;
+
+    public static final Type<EnchantmentBatchPayload> TYPE =
+            new Type<>(ResourceLocation.fromNamespaceAndPath(Constants.MOD_ID, "enchantment_batch"));
+
+    public static final StreamCodec<FriendlyByteBuf, EnchantmentBatchPayload> STREAM_CODEC =
+            CustomPacketPayload.codec(EnchantmentBatchPayload::write, EnchantmentBatchPayload::read);
+
+    private void write(FriendlyByteBuf buf) {
+        buf.writeVarInt(this.containerId);
+        buf.writeVarIntArray(this.buttonIds);
+    }
+
+    private static EnchantmentBatchPayload read(FriendlyByteBuf buf) {
+        return new EnchantmentBatchPayload(buf.readVarInt(), buf.readVarIntArray(MAX_BUTTONS));
+    }
+
+    /**
+     * Applies the batch to the player's open menu, if it is still the menu the batch was sent for,
+     * and broadcasts the result. Must be called on the server thread.
+     *
+     * @param player The sending player.
+     */
+    public void handle(Player player) {
+        if (player != null
+                && !player.isSpectator()
+                && player.containerMenu.containerId == this.containerId
+                && player.containerMenu.stillValid(player)
+                && player.containerMenu instanceof EnchantmentMenuAccessor accessor) {
+            accessor.enchanting_overhauled$clickMenuButtons(player, this.buttonIds);
+            player.containerMenu.broadcastChanges();
+        }
+    }
+
+    @Override
+    public Type<? extends CustomPacketPayload> type() {
+        return TYPE;
+    }
+}
@@ -0,0 +1,83 @@
+package johnsmith.enchantingoverhauled.network;
+
+import johnsmith.enchantingoverhauled.Constants;
+import johnsmith.enchantingoverhauled.accessor.EnchantmentMenuAccessor;
+
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.network.codec.StreamCodec;
+import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.entity.player.Player;
+
+/**
+ * Server-to-client payload carrying the packed state of an open enchanting menu.
+ * <p>
+ * The state is a fixed list of integers (costs, clues, levels and sources;
+ * see {@link EnchantmentMenuAccessor#enchanting_overhauled$applyMenuState}). Only the entries
+ * that changed since the last payload sent for the same menu are included: bit {@code i} of
+ * {@code mask} is set if entry {@code i} is present, and {@code values} holds the present entries
+ * in ascending order. The first payload of a menu always carries every entry.
+ * <p>
+ * Each payload also carries the menu's option revision, which tells the client that its
+ * preview has been answered even if no entry changed.
+ *
+ * @param containerId The id of the menu the state belongs to.
+ * @param revision    The option revision of the menu.
+ * @param mask        The entries present in {@code values}.
+ * @param values      The new values of the present entries.
+ */
+public record EnchantmentMenuStatePayload(
+        int containerId,
+        int revision,
+        int mask,
+        int[] values
+) implements CustomPacketPayload {
+
+    public static final Type<EnchantmentMenuStatePayload> TYPE =
+            new Type<>(ResourceLocation.fromNamespaceAndPath(Constants.MOD_ID, "enchantment_menu_state"));
+
+    public static final StreamCodec<FriendlyByteBuf, EnchantmentMenuStatePayload> STREAM_CODEC =
+            CustomPacketPayload.codec(EnchantmentMenuStatePayload::write, EnchantmentMenuStatePayload::read);
+
+    private void write(FriendlyByteBuf buf) {
+        buf.writeVarInt(this.containerId);
+        buf.writeVarInt(this.revision);
+        buf.writeVarInt(this.mask);
+        for (int value : this.values) {
+            // Zig-zag encoded, so the frequent -1 ("no enchantment") takes a single byte
+            buf.writeVarInt((value << 1) ^ (value >> 31));
+        }
+    }
+
+    private static EnchantmentMenuStatePayload read(FriendlyByteBuf buf) {
+        int containerId = buf.readVarInt();
+        int revision = buf.readVarInt();
+        int mask = buf.readVarInt();
+
+        int[] values = new int[Integer.bitCount(mask)];
+        for (int i = 0; i < values.length; i++) {
+            int encoded = buf.readVarInt();
+            values[i] = (encoded >>> 1) ^ -(encoded & 1);
+        }
+        return new EnchantmentMenuStatePayload(containerId, revision, mask, values);
+    }
+
+    /**
+     * Applies the state to the player's open menu, if it is still the menu the state was sent for.
+     * Must be called on the client thread.
+     *
+     * @param player The receiving player.
+     */
+    public void handle(Player player) {
+        if (player != null
+                && player.containerMenu.containerId == this.containerId
+                && player.containerMenu instanceof EnchantmentMenuAccessor accessor) {
+            accessor.enchanting_overhauled$applyMenuState(this);
+        }
+    }
+
+    @Override
+    public Type<? extends CustomPacketPayload> type() {
+        return TYPE;
+    }
+}
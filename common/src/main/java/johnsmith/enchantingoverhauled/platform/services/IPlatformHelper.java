@@ -7,6 +7,8 @@ import johnsmith.enchantingoverhauled.structure.processor.OvergrowthProcessor;
 import johnsmith.enchantingoverhauled.structure.processor.VinesProcessor;
 import net.minecraft.core.Registry;
 import net.minecraft.core.RegistryAccess;
+import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
+import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.item.Item;
 import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.levelgen.structure.templatesystem.StructureProcessorType;
@@ -89,6 +91,23 @@ public interface IPlatformHelper {
      */
     Optional<Registry<EnchantmentTheme>> getThemeRegistry(RegistryAccess registryAccess);
 
+    /**
+     * Sends a custom payload to a single player. The payload type must have been registered
+     * by the platform's entry point.
+     *
+     * @param player  The receiving player.
+     * @param payload The payload to send.
+     */
+    void sendToPlayer(ServerPlayer player, CustomPacketPayload payload);
+
+    /**
+     * Sends a custom payload from the client to the server. The payload type must have been registered
+     * by the platform's entry point. Must only be called on the client.
+     *
+     * @param payload The payload to send.
+     */
+    void sendToServer(CustomPacketPayload payload);
+
     /**
      * Gets the registered type for the Block Age structure processor.
      */
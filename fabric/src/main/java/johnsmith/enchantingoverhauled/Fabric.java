@@ -11,11 +11,16 @@ import johnsmith.enchantingoverhauled.block.Blocks;
 import johnsmith.enchantingoverhauled.config.Config;
 import johnsmith.enchantingoverhauled.item.FabricItemGroups;
 import johnsmith.enchantingoverhauled.item.Items;
+import johnsmith.enchantingoverhauled.network.EnchantmentBatchPayload;
+import johnsmith.enchantingoverhauled.network.EnchantmentMenuStatePayload;
 import johnsmith.enchantingoverhauled.structure.processor.Processors;
 
 import net.fabricmc.api.ModInitializer;
+import net.fabricmc.fabric.api.event.lifecycle.v1.CommonLifecycleEvents;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
 import net.fabricmc.fabric.api.event.registry.DynamicRegistries;
+import net.fabricmc.fabric.api.networking.v1.PayloadTypeRegistry;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
 
 import net.fabricmc.loader.api.FabricLoader;
 import net.minecraft.server.MinecraftServer;
@@ -51,5 +56,14 @@ public class Fabric implements ModInitializer {
 
         // Register dynamic registry for syncing EnchantmentThemes
         DynamicRegistries.registerSynced(EnchantmentThemeRegistry.THEME_REGISTRY_KEY, EnchantmentTheme.CODEC);
+
+        // Register custom payloads (client receivers are registered by the client entry point)
+        PayloadTypeRegistry.playS2C().register(EnchantmentMenuStatePayload.TYPE, EnchantmentMenuStatePayload.STREAM_CODEC);
+        PayloadTypeRegistry.playC2S().register(EnchantmentBatchPayload.TYPE, EnchantmentBatchPayload.STREAM_CODEC);
+        ServerPlayNetworking.registerGlobalReceiver(EnchantmentBatchPayload.TYPE,
+                (payload, context) -> payload.handle(context.player()));
+
+        // Rebuild registry-derived lookup tables whenever tags are (re)bound
+        CommonLifecycleEvents.TAGS_LOADED.register((registries, client) -> Common.onTagsLoaded());
     }
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package johnsmith.enchantingoverhauled.client;
 
 import johnsmith.enchantingoverhauled.client.render.entity.model.TomeModel;
 import johnsmith.enchantingoverhauled.config.Config;
+import johnsmith.enchantingoverhauled.network.EnchantmentMenuStatePayload;
 
 import net.fabricmc.api.ClientModInitializer;
 import net.fabricmc.fabric.api.client.networking.v1.ClientPlayConnectionEvents;
@@ -13,5 +14,8 @@ public class FabricClient implements ClientModInitializer {
     @Override
     public void onInitializeClient() {
         EntityModelLayerRegistry.registerModelLayer(TomeModel.LAYER_LOCATION, TomeModel::createBodyLayer);
+
+        ClientPlayNetworking.registerGlobalReceiver(EnchantmentMenuStatePayload.TYPE,
+                (payload, context) -> payload.handle(context.player()));
     }
 }
\ No newline at end of file
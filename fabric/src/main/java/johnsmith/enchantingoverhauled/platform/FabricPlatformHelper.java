@@ -11,9 +11,13 @@ import johnsmith.enchantingoverhauled.structure.processor.BlockAgeProcessor;
 import johnsmith.enchantingoverhauled.structure.processor.DesertifyProcessor;
 import johnsmith.enchantingoverhauled.structure.processor.OvergrowthProcessor;
 import johnsmith.enchantingoverhauled.structure.processor.VinesProcessor;
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayNetworking;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
 import net.fabricmc.loader.api.FabricLoader;
 import net.minecraft.core.Registry;
 import net.minecraft.core.RegistryAccess;
+import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
+import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.item.Item;
 import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.levelgen.structure.templatesystem.StructureProcessorType;
@@ -70,6 +74,16 @@ public class FabricPlatformHelper implements IPlatformHelper {
         return registryAccess.registry(EnchantmentThemeRegistry.THEME_REGISTRY_KEY);
     }
 
+    @Override
+    public void sendToPlayer(ServerPlayer player, CustomPacketPayload payload) {
+        ServerPlayNetworking.send(player, payload);
+    }
+
+    @Override
+    public void sendToServer(CustomPacketPayload payload) {
+        ClientPlayNetworking.send(payload);
+    }
+
     @Override
     public StructureProcessorType<BlockAgeProcessor> getBlockAgeProcessor() {
         return Processors.BLOCK_AGE_PROCESSOR;
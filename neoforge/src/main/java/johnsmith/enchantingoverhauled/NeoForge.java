@@ -13,6 +13,8 @@ import johnsmith.enchantingoverhauled.datagen.NeoForgeLootModifiersProvider;
 import johnsmith.enchantingoverhauled.item.Items;
 import johnsmith.enchantingoverhauled.item.NeoForgeItemGroups;
 import johnsmith.enchantingoverhauled.loot.NeoForgeLootModifiers;
+import johnsmith.enchantingoverhauled.network.EnchantmentBatchPayload;
+import johnsmith.enchantingoverhauled.network.EnchantmentMenuStatePayload;
 import johnsmith.enchantingoverhauled.structure.processor.Processors;
 
 import net.minecraft.core.registries.BuiltInRegistries;
@@ -27,7 +29,10 @@ import net.neoforged.fml.loading.FMLPaths;
 import net.neoforged.neoforge.client.gui.IConfigScreenFactory;
 import net.neoforged.neoforge.data.event.GatherDataEvent;
 import net.neoforged.neoforge.event.AddReloadListenerEvent;
+import net.neoforged.neoforge.event.TagsUpdatedEvent;
 import net.neoforged.neoforge.event.server.ServerStartingEvent;
+import net.neoforged.neoforge.network.event.RegisterPayloadHandlersEvent;
+import net.neoforged.neoforge.network.registration.PayloadRegistrar;
 import net.neoforged.neoforge.registries.DataPackRegistryEvent;
 import net.neoforged.neoforge.registries.RegisterEvent;
 
@@ -55,6 +60,10 @@ public class NeoForge {
         eventBus.addListener(this::onRegister);
         eventBus.addListener(this::onDataPackRegistry);
         eventBus.addListener(this::gatherData);
+        eventBus.addListener(this::onRegisterPayloadHandlers);
+
+        // 6. Game Bus Events
+        EVENT_BUS.addListener(this::onTagsUpdated);
 
         if (FMLEnvironment.dist == Dist.CLIENT) {
             NeoForgeClient.initialize(eventBus);
@@ -75,10 +84,34 @@ public class NeoForge {
         }
     }
 
+    /**
+     * Registers the mod's custom payloads. Handlers run on the main thread.
+     */
+    private void onRegisterPayloadHandlers(RegisterPayloadHandlersEvent event) {
+        PayloadRegistrar registrar = event.registrar("1");
+        registrar.playToClient(
+                EnchantmentMenuStatePayload.TYPE,
+                EnchantmentMenuStatePayload.STREAM_CODEC,
+                (payload, context) -> payload.handle(context.player())
+        );
+        registrar.playToServer(
+                EnchantmentBatchPayload.TYPE,
+                EnchantmentBatchPayload.STREAM_CODEC,
+                (payload, context) -> payload.handle(context.player())
+        );
+    }
+
     public void onDataPackRegistry(DataPackRegistryEvent.NewRegistry event) {
         event.dataPackRegistry(EnchantmentThemeRegistry.THEME_REGISTRY_KEY, EnchantmentTheme.CODEC, EnchantmentTheme.CODEC);
     }
 
+    /**
+     * Rebuilds registry-derived lookup tables whenever tags are (re)bound on either side.
+     */
+    private void onTagsUpdated(TagsUpdatedEvent event) {
+        Common.onTagsLoaded();
+    }
+
     public void gatherData(GatherDataEvent event) {
         event.getGenerator().addProvider(
             event.includeServer(),
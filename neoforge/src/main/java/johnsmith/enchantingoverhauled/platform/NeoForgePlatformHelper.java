@@ -10,6 +10,8 @@ import johnsmith.enchantingoverhauled.structure.processor.*;
 
 import net.minecraft.core.Registry;
 import net.minecraft.core.RegistryAccess;
+import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
+import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.item.Item;
 import net.minecraft.world.item.enchantment.Enchantment;
 import net.minecraft.world.level.block.Block;
@@ -17,6 +19,7 @@ import net.minecraft.world.level.levelgen.structure.templatesystem.StructureProc
 import net.neoforged.fml.ModList;
 import net.neoforged.fml.loading.FMLLoader;
 import net.neoforged.fml.loading.FMLPaths;
+import net.neoforged.neoforge.network.PacketDistributor;
 
 import java.nio.file.Path;
 import java.util.Optional;
@@ -71,6 +74,16 @@ public class NeoForgePlatformHelper implements IPlatformHelper {
         return registryAccess.registry(EnchantmentThemeRegistry.THEME_REGISTRY_KEY);
     }
 
+    @Override
+    public void sendToPlayer(ServerPlayer player, CustomPacketPayload payload) {
+        PacketDistributor.sendToPlayer(player, payload);
+    }
+
+    @Override
+    public void sendToServer(CustomPacketPayload payload) {
+        PacketDistributor.sendToServer(payload);
+    }
+
     @Override
     public StructureProcessorType<BlockAgeProcessor> getBlockAgeProcessor() {
         return Processors.BLOCK_AGE_PROCESSOR.get();